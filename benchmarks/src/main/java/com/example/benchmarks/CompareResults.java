@@ -0,0 +1,78 @@
+package com.example.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// 对比两次 JMH 运行的 JSON 结果（-rf json 输出），按基准测试和参数逐项列出分数变化。
+// 两次结果的误差区间（99.9% 置信）不重叠时标记为显著变化。
+// 用法：java -cp target/benchmarks.jar com.example.benchmarks.CompareResults baseline.json current.json
+public class CompareResults {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) {
+            System.err.println("Usage: CompareResults baseline.json current.json");
+            System.exit(2);
+        }
+        Map<String, JsonNode> baseline = load(new File(args[0]));
+        Map<String, JsonNode> current = load(new File(args[1]));
+
+        int width = current.keySet().stream().mapToInt(String::length).max().orElse(10);
+        String nameFormat = "%-" + width + "s";
+        System.out.printf(nameFormat + " %14s %14s %9s  %s%n", "benchmark", "baseline", "current", "change", "unit");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode now = entry.getValue().get("primaryMetric");
+            JsonNode before = baseline.containsKey(entry.getKey()) ? baseline.get(entry.getKey()).get("primaryMetric") : null;
+            String unit = now.get("scoreUnit").asText();
+            if (before == null) {
+                System.out.printf(nameFormat + " %14s %14.3f %9s  %s%n", entry.getKey(), "-", now.get("score").asDouble(), "new", unit);
+                continue;
+            }
+            double oldScore = before.get("score").asDouble();
+            double newScore = now.get("score").asDouble();
+            double change = oldScore == 0 ? 0 : (newScore - oldScore) / oldScore * 100;
+            // 吞吐量越大越好，耗时越小越好
+            boolean higherIsBetter = unit.startsWith("ops/");
+            boolean significant = !overlaps(before, now);
+            String verdict = !significant ? "" : (newScore > oldScore) == higherIsBetter ? "  improved" : "  REGRESSED";
+            System.out.printf(nameFormat + " %14.3f %14.3f %+8.1f%%  %s%s%n",
+                    entry.getKey(), oldScore, newScore, change, unit, verdict);
+        }
+    }
+
+    // 以 "基准测试名 {参数}" 为键读取结果
+    private static Map<String, JsonNode> load(File file) throws Exception {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            String name = result.get("benchmark").asText().replace("com.example.benchmarks.", "");
+            JsonNode params = result.get("params");
+            if (params != null) {
+                StringBuilder key = new StringBuilder(name).append(" {");
+                Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> param = fields.next();
+                    key.append(param.getKey()).append('=').append(param.getValue().asText());
+                    if (fields.hasNext()) {
+                        key.append(", ");
+                    }
+                }
+                name = key.append('}').toString();
+            }
+            results.put(name, result);
+        }
+        return results;
+    }
+
+    private static boolean overlaps(JsonNode a, JsonNode b) {
+        JsonNode ca = a.get("scoreConfidence");
+        JsonNode cb = b.get("scoreConfidence");
+        if (ca == null || cb == null || !ca.get(0).isNumber() || !cb.get(0).isNumber()) {
+            return true;
+        }
+        return ca.get(0).asDouble() <= cb.get(1).asDouble() && cb.get(0).asDouble() <= ca.get(1).asDouble();
+    }
+}
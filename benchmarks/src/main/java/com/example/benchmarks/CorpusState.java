@@ -0,0 +1,31 @@
+package com.example.benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// 各基准测试共用的合成语料，规模可通过 -p docs=10000 -p bodyWords=3000 等参数调整
+@State(Scope.Benchmark)
+public class CorpusState {
+
+    // 论文篇数
+    @Param("1000")
+    public int docs;
+
+    // 每篇论文正文的词数
+    @Param("2000")
+    public int bodyWords;
+
+    // 随机种子，相同种子生成相同语料
+    @Param("42")
+    public long seed;
+
+    public SyntheticCorpus corpus;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        corpus = SyntheticCorpus.get(docs, bodyWords, seed);
+    }
+}
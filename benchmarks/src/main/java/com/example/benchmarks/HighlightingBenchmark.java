@@ -0,0 +1,81 @@
+package com.example.benchmarks;
+
+import com.example.PorterStemAnalyzer;
+import com.example.service.SearchHighlighter;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.FSDirectory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// 为一页（10 条）命中计算高亮片段的耗时，对比 CLASSIC 与 UNIFIED 两种方式；检索本身在 setUp 中完成，不计入
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class HighlightingBenchmark {
+
+    @Param({"CLASSIC", "UNIFIED"})
+    public SearchHighlighter.Mode mode;
+
+    @Param({"title", "fulltext"})
+    public String field;
+
+    private DirectoryReader reader;
+    private IndexSearcher searcher;
+    private final Analyzer analyzer = new PorterStemAnalyzer();
+    private final List<Query> queries = new ArrayList<>();
+    private final List<TopDocs> topDocs = new ArrayList<>();
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp(CorpusState state) throws Exception {
+        reader = DirectoryReader.open(FSDirectory.open(state.corpus.indexDir));
+        searcher = new IndexSearcher(reader);
+        QueryParser parser = new QueryParser(field, analyzer);
+        Random random = new Random(state.seed);
+        while (queries.size() < 100) {
+            Query query = parser.parse(state.corpus.zipfWord(random));
+            TopDocs hits = searcher.search(query, 10);
+            // 只保留有命中的查询，零命中时没有需要高亮的内容
+            if (hits.scoreDocs.length > 0) {
+                queries.add(query);
+                topDocs.add(hits);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        reader.close();
+    }
+
+    @Benchmark
+    public String[] highlight() throws Exception {
+        int i = next;
+        next = (next + 1) % queries.size();
+        return SearchHighlighter.highlight(mode, searcher, analyzer, field, queries.get(i), topDocs.get(i));
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.benchmarks;
+
+import com.example.LuceneIndexer;
+import com.example.TEIRecord;
+import com.example.TEIStreamParser;
+import com.example.XMLParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// 索引吞吐量（篇/秒）：流式解析、DOM 解析，以及 LuceneIndexer.indexXML（解析 + 建文档 + 写入）
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class IndexingBenchmark {
+
+    private File[] files;
+    private int next;
+    private Path indexDir;
+    private LuceneIndexer indexer;
+    private PrintStream stdout;
+
+    @Setup(Level.Trial)
+    public void setUp(CorpusState state) throws Exception {
+        files = state.corpus.xmlFiles();
+        indexDir = Files.createTempDirectory("bench-index");
+        // indexXML 每篇输出一行日志，测量期间关闭标准输出
+        stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        indexer = new LuceneIndexer(indexDir.toString(), 64, -1, true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        indexer.close();
+        System.setOut(stdout);
+        try (Stream<Path> paths = Files.walk(indexDir)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    private File nextFile() {
+        File file = files[next];
+        next = (next + 1) % files.length;
+        return file;
+    }
+
+    @Benchmark
+    public TEIRecord parseStream() throws Exception {
+        return TEIStreamParser.parse(nextFile());
+    }
+
+    @Benchmark
+    public TEIRecord parseDom() throws Exception {
+        return XMLParser.extractTEI(nextFile());
+    }
+
+    // 同一篇论文重复写入时替换旧文档，与增量重建的路径相同
+    @Benchmark
+    public void indexXML() throws Exception {
+        indexer.indexXML(nextFile());
+    }
+}
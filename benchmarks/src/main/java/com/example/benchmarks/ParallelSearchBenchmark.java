@@ -0,0 +1,81 @@
+package com.example.benchmarks;
+
+import com.example.PorterStemAnalyzer;
+import com.example.service.ParallelSearcherFactory;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopScoreDocCollectorManager;
+import org.apache.lucene.store.FSDirectory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// 顺序检索（searchThreads=0）与段内并行检索的延迟分布，所有客户端线程共用一个 IndexSearcher。
+// 并发客户端数用 JMH 的 -t 参数指定，例如 -t 1、-t 4、-t 16；客户端数接近 CPU 核数时并行检索的吞吐量可能反而下降。
+// 合成语料的段较少时分片也少，可以用 -p sliceMaxDocs=... 调小分片大小
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelSearchBenchmark {
+
+    @Param({"0", "4"})
+    public int searchThreads;
+
+    @Param("250000")
+    public int sliceMaxDocs;
+
+    @Param("5")
+    public int sliceMaxSegments;
+
+    private DirectoryReader reader;
+    private ParallelSearcherFactory factory;
+    private IndexSearcher searcher;
+    private final List<Query> queries = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp(CorpusState state) throws Exception {
+        reader = DirectoryReader.open(FSDirectory.open(state.corpus.indexDir));
+        factory = new ParallelSearcherFactory(searchThreads, 1024, sliceMaxDocs, sliceMaxSegments);
+        searcher = factory.newSearcher(reader, null);
+        QueryParser parser = new QueryParser("fulltext", new PorterStemAnalyzer());
+        Random random = new Random(state.seed);
+        for (int i = 0; i < 100; i++) {
+            queries.add(parser.parse(random.nextBoolean() ? state.corpus.zipfWord(random)
+                    : state.corpus.zipfWord(random) + " " + state.corpus.zipfWord(random)));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        factory.close();
+        reader.close();
+    }
+
+    @Benchmark
+    public TopDocs search() throws Exception {
+        Query query = queries.get(ThreadLocalRandom.current().nextInt(queries.size()));
+        return searcher.search(query, new TopScoreDocCollectorManager(10, null, 1000));
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.benchmarks;
+
+import com.example.LoadTester;
+import com.example.LuceneSearchApplication;
+import com.example.model.SearchRequest;
+import com.example.service.QueryLog;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// 对比检索接口的两种请求处理方式：blocking 为每个进行中的请求占用一个 Tomcat 请求线程直到检索完成；
+// async（search.async-requests=true）把检索交给检索线程池后立即释放请求线程。
+// 每种方式在单独的子进程中启动应用（随机端口，继承本进程的 -X / -D 参数），本进程用 LoadTester 的固定到达速率模型
+// 重放同一份查询日志，负载发生器的发送线程和内存不计入服务端。报告吞吐量、错误率、响应时间分位数，
+// 以及子进程的 JVM 线程数峰值、服务端线程数峰值（Tomcat 请求线程 http-nio-*-exec-* 与检索线程 search-*）、
+// 已用堆内存峰值（每 100 ms 采样）和常驻内存峰值（Linux 的 VmHWM，其他系统为 n/a）。
+// 到达速率超过处理能力时，blocking 的进行中请求受 Tomcat 线程数（默认 200）限制，多余的连接在连接器中等待；
+// async 的进行中请求只受排队长度限制，线程数保持不变。
+// 准入控制的排队长度默认为 --max-in-flight，且不限排队时间，使两种方式都处理全部请求；其他 --search.* / --server.* 参数原样传给应用。
+// 用法：RequestExecutionBenchmark --log queries.log [--index-dir index] [--modes blocking,async] [--rate 500]
+//       [--duration 20] [--warmup 5] [--max-in-flight 2000] [--search.xxx=value ...]
+public class RequestExecutionBenchmark {
+
+    // 子进程与本进程之间的协议行前缀，其余输出原样转发
+    private static final String PROTOCOL = "@bench ";
+    private static final String EXITED = "exited";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--serve")) {
+            serve(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        String log = "queries.log";
+        String indexDir = "index";
+        String[] modes = {"blocking", "async"};
+        double rate = 500;
+        int duration = 20;
+        int warmup = 5;
+        int maxInFlight = 2000;
+        Map<String, String> appArgs = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--log":
+                    log = args[++i];
+                    break;
+                case "--index-dir":
+                    indexDir = args[++i];
+                    break;
+                case "--modes":
+                    modes = args[++i].split(",");
+                    break;
+                case "--rate":
+                    rate = Double.parseDouble(args[++i]);
+                    break;
+                case "--duration":
+                    duration = Integer.parseInt(args[++i]);
+                    break;
+                case "--warmup":
+                    warmup = Integer.parseInt(args[++i]);
+                    break;
+                case "--max-in-flight":
+                    maxInFlight = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    if ((args[i].startsWith("--search.") || args[i].startsWith("--server.")) && args[i].contains("=")) {
+                        int eq = args[i].indexOf('=');
+                        appArgs.put(args[i].substring(0, eq), args[i].substring(eq + 1));
+                        break;
+                    }
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(2);
+            }
+        }
+        List<SearchRequest> entries = QueryLog.read(Paths.get(log), Integer.MAX_VALUE);
+        if (entries.isEmpty()) {
+            System.err.println("No queries found in " + log);
+            System.exit(2);
+        }
+
+        System.out.printf("Fixed rate %.1f req/s, %d queries from %s, %d s warmup + %d s measured, max in flight %d%n",
+                rate, entries.size(), log, warmup, duration, maxInFlight);
+        List<String> rows = new ArrayList<>();
+        for (String mode : modes) {
+            // 同名参数在命令行中重复出现时 Spring 会把取值拼接起来，先合并默认值与用户参数
+            Map<String, String> merged = new LinkedHashMap<>();
+            merged.put("--server.port", "0");
+            merged.put("--logging.level.root", "WARN");
+            merged.put("--search.index-dir", indexDir);
+            merged.put("--search.async-requests", Boolean.toString(mode.equals("async")));
+            merged.put("--search.admission-queue-size", Integer.toString(maxInFlight));
+            merged.put("--search.admission-queue-timeout-ms", "0");
+            // 每个请求都真正执行检索，不受缓存、预热和后台刷新影响
+            merged.put("--search.cache-max-entries", "0");
+            merged.put("--search.warmup-time-budget-ms", "0");
+            merged.put("--search.query-log", "");
+            merged.put("--search.refresh-interval-ms", "0");
+            merged.putAll(appArgs);
+            List<String> springArgs = new ArrayList<>();
+            merged.forEach((name, value) -> springArgs.add(name + "=" + value));
+            rows.add(run(mode, springArgs.toArray(new String[0]), entries, rate, duration, warmup, maxInFlight));
+        }
+
+        System.out.printf("%n%-9s %12s %8s %10s %10s %10s %10s %13s %15s %13s %12s%n", "mode", "throughput", "errors",
+                "p50 ms", "p99 ms", "p99.9 ms", "max ms", "peak threads", "server threads", "peak heap MB", "peak RSS MB");
+        for (String row : rows) {
+            System.out.println(row);
+        }
+    }
+
+    private static String run(String mode, String[] springArgs, List<SearchRequest> entries, double rate,
+                              int duration, int warmup, int maxInFlight) throws Exception {
+        System.out.println("Starting application in " + mode + " mode");
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        for (String option : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if (option.startsWith("-X") || option.startsWith("-D")) {
+                command.add(option);
+            }
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(RequestExecutionBenchmark.class.getName());
+        command.add("--serve");
+        command.addAll(Arrays.asList(springArgs));
+        Process server = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        // 持续读取子进程输出，避免管道写满阻塞应用；协议行放入队列，其余原样转发
+        BlockingQueue<String> protocol = new LinkedBlockingQueue<>();
+        Thread forwarder = new Thread(() -> {
+            try (BufferedReader out = new BufferedReader(new InputStreamReader(server.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = out.readLine()) != null) {
+                    if (line.startsWith(PROTOCOL)) {
+                        protocol.add(line.substring(PROTOCOL.length()));
+                    } else {
+                        System.out.println(line);
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Error reading application output: " + e.getMessage());
+            }
+            protocol.add(EXITED);
+        }, "bench-forwarder");
+        forwarder.setDaemon(true);
+        forwarder.start();
+        try (OutputStream in = server.getOutputStream()) {
+            String port = awaitProtocol(protocol, "port");
+            LoadTester tester = new LoadTester("http://localhost:" + port, entries);
+            long measureStart = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmup);
+            long end = measureStart + TimeUnit.SECONDS.toNanos(duration);
+            tester.runFixedRate(rate, maxInFlight, measureStart, end);
+            // 负载结束后通知子进程停止采样，读取服务端的线程数和内存
+            in.write("stop\n".getBytes(StandardCharsets.UTF_8));
+            in.flush();
+            String[] stats = awaitProtocol(protocol, "stats").split(" ");
+            server.waitFor();
+            long requests = tester.requests();
+            return String.format("%-9s %10.1f/s %7.2f%% %10.3f %10.3f %10.3f %10.3f %13s %15s %13s %12s", mode,
+                    requests / (double) duration, requests == 0 ? 0 : tester.errors() * 100.0 / requests,
+                    tester.responsePercentile(0.50), tester.responsePercentile(0.99),
+                    tester.responsePercentile(0.999), tester.responsePercentile(1.0),
+                    stats[0], stats[1], stats[2], stats[3]);
+        } finally {
+            server.destroy();
+        }
+    }
+
+    // 等待子进程报告指定的协议行，返回其内容
+    private static String awaitProtocol(BlockingQueue<String> protocol, String name) throws IOException, InterruptedException {
+        while (true) {
+            String line = protocol.take();
+            if (line.equals(EXITED)) {
+                throw new IOException("Application exited before reporting " + name);
+            }
+            if (line.startsWith(name + " ")) {
+                return line.substring(name.length() + 1);
+            }
+        }
+    }
+
+    // 子进程：启动应用并报告端口，采样线程数和堆内存，直到标准输入收到 stop（或关闭）时报告峰值并退出
+    private static void serve(String[] springArgs) throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(LuceneSearchApplication.class)
+                .logStartupInfo(false).run(springArgs)) {
+            // 启动过程中的垃圾不计入峰值
+            System.gc();
+            threads.resetPeakThreadCount();
+            long[] peaks = new long[2];
+            Thread sampler = new Thread(() -> {
+                while (!Thread.currentThread().isInterrupted()) {
+                    long serverThreads = 0;
+                    for (ThreadInfo info : threads.getThreadInfo(threads.getAllThreadIds(), 0)) {
+                        if (info != null && isServerThread(info.getThreadName())) {
+                            serverThreads++;
+                        }
+                    }
+                    synchronized (peaks) {
+                        peaks[0] = Math.max(peaks[0], serverThreads);
+                        peaks[1] = Math.max(peaks[1], memory.getHeapMemoryUsage().getUsed());
+                    }
+                    try {
+                        Thread.sleep(100);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }, "bench-sampler");
+            sampler.setDaemon(true);
+            sampler.start();
+            System.out.println(PROTOCOL + "port " + context.getEnvironment().getProperty("local.server.port"));
+            System.out.flush();
+
+            BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = in.readLine()) != null && !line.equals("stop")) {
+                // 忽略其他输入
+            }
+            sampler.interrupt();
+            sampler.join();
+            long rss = peakRssKb();
+            synchronized (peaks) {
+                System.out.println(PROTOCOL + "stats " + threads.getPeakThreadCount() + " " + peaks[0] + " "
+                        + peaks[1] / (1024 * 1024) + " " + (rss < 0 ? "n/a" : Long.toString(rss / 1024)));
+            }
+            System.out.flush();
+        }
+    }
+
+    private static boolean isServerThread(String name) {
+        return name.startsWith("http-nio-") && name.contains("-exec-") || name.startsWith("search-");
+    }
+
+    // 进程常驻内存的峰值（KB），读取 /proc/self/status 的 VmHWM；不可用时返回 -1
+    private static long peakRssKb() {
+        Path status = Paths.get("/proc/self/status");
+        if (!Files.isReadable(status)) {
+            return -1;
+        }
+        try {
+            for (String line : Files.readAllLines(status)) {
+                if (line.startsWith("VmHWM:")) {
+                    return Long.parseLong(line.substring("VmHWM:".length()).replace("kB", "").trim());
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            return -1;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.benchmarks;
+
+import com.example.config.SearchProperties;
+import com.example.model.SearchPage;
+import com.example.model.SearchRequest;
+import com.example.service.SearchService;
+import com.example.service.SpellSuggester;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// SearchService.search 的单次延迟（含解析、检索、高亮和组装结果），按检索字段分别测量；结果缓存关闭
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class SearchBenchmark {
+
+    @Param({"title", "authors", "fulltext", "all"})
+    public String field;
+
+    private SearchService searchService;
+    private final List<SearchRequest> requests = new ArrayList<>();
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp(CorpusState state) throws Exception {
+        searchService = newSearchService(state.corpus, null);
+        Random random = new Random(state.seed);
+        for (int i = 0; i < 200; i++) {
+            SearchRequest request = new SearchRequest();
+            request.setField(field);
+            // 作者按姓检索，其余字段为一到两个常见词
+            request.setQuery(field.equals("authors") ? state.corpus.surnames.get(random.nextInt(100))
+                    : random.nextBoolean() ? state.corpus.zipfWord(random)
+                    : state.corpus.zipfWord(random) + " " + state.corpus.zipfWord(random));
+            requests.add(request);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        searchService.close();
+    }
+
+    @Benchmark
+    public SearchPage search() {
+        SearchRequest request = requests.get(next);
+        next = (next + 1) % requests.size();
+        return searchService.search(request);
+    }
+
+    // 基准测试用的检索服务：关闭结果缓存和后台刷新，spellcheck 为 null 时使用默认方式。
+    // 同时关闭准入控制和检索时限，检索直接在基准线程上执行，与引入这两项之前的结果可以直接比较
+    static SearchService newSearchService(SyntheticCorpus corpus, SpellSuggester.Mode spellcheck)
+            throws Exception {
+        SearchProperties properties = new SearchProperties();
+        properties.setIndexDir(corpus.indexDir.toString());
+        properties.setCacheMaxEntries(0);
+        properties.setRefreshIntervalMs(0);
+        properties.setMaxConcurrentSearches(0);
+        properties.setSearchTimeoutMs(0);
+        if (spellcheck != null) {
+            properties.setSpellcheck(spellcheck);
+        }
+        return SyntheticCorpus.quietly(() -> new SearchService(properties));
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.benchmarks;
+
+import com.example.service.SpellSuggester;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.store.FSDirectory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// 单次拼写建议的延迟（只调用 SpellSuggester.suggest，不含检索），对比 DIRECT 与 INDEX 两种方式；
+// 就绪耗时见 SpellSuggesterStartupBenchmark，零命中检索的完整耗时见 SpellcheckPathBenchmark
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class SpellSuggesterBenchmark {
+
+    @Param({"DIRECT", "INDEX"})
+    public SpellSuggester.Mode mode;
+
+    private DirectoryReader reader;
+    private SpellSuggester suggester;
+    private final List<String> words = new ArrayList<>();
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp(CorpusState state) throws Exception {
+        reader = DirectoryReader.open(FSDirectory.open(state.corpus.indexDir));
+        suggester = SyntheticCorpus.quietly(() -> new SpellSuggester(mode, state.corpus.indexDir.toString(), reader));
+        Random random = new Random(state.seed);
+        for (int i = 0; i < 100; i++) {
+            words.add(state.corpus.misspelled(random));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        suggester.close();
+        reader.close();
+    }
+
+    @Benchmark
+    public String[] suggest() throws Exception {
+        String word = words.get(next);
+        next = (next + 1) % words.size();
+        return suggester.suggest(reader, "fulltext", word, 5);
+    }
+}
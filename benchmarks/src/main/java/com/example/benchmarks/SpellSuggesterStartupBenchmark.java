@@ -0,0 +1,69 @@
+package com.example.benchmarks;
+
+import com.example.LuceneIndexer;
+import com.example.service.SpellSuggester;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.store.FSDirectory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+// 拼写建议的就绪耗时：从没有侧索引的状态创建 SpellSuggester，INDEX 方式需要为每个字段构建 SpellChecker 侧索引，
+// DIRECT 方式直接读取主索引。每次迭代前删除侧索引，测量的是首次启动的耗时
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class SpellSuggesterStartupBenchmark {
+
+    @Param({"DIRECT", "INDEX"})
+    public SpellSuggester.Mode mode;
+
+    private String indexDir;
+    private DirectoryReader reader;
+
+    @Setup(Level.Trial)
+    public void setUp(CorpusState state) throws Exception {
+        indexDir = state.corpus.indexDir.toString();
+        reader = DirectoryReader.open(FSDirectory.open(state.corpus.indexDir));
+    }
+
+    @Setup(Level.Iteration)
+    public void deleteSpellIndexes() throws Exception {
+        for (String field : SpellSuggester.FIELDS) {
+            Path spellDir = Paths.get(indexDir + "_" + field + "_spell");
+            if (Files.exists(spellDir)) {
+                LuceneIndexer.deleteRecursively(spellDir);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        reader.close();
+    }
+
+    @Benchmark
+    public SpellSuggester open() throws Exception {
+        SpellSuggester suggester = SyntheticCorpus.quietly(() -> new SpellSuggester(mode, indexDir, reader));
+        suggester.close();
+        return suggester;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.benchmarks;
+
+import com.example.model.SearchPage;
+import com.example.model.SearchRequest;
+import com.example.service.SearchService;
+import com.example.service.SpellSuggester;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// 零命中查询的完整耗时（检索 + 拼写建议），对比 DIRECT 与 INDEX 两种拼写建议方式
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class SpellcheckPathBenchmark {
+
+    @Param({"DIRECT", "INDEX"})
+    public SpellSuggester.Mode mode;
+
+    private SearchService searchService;
+    private final List<SearchRequest> requests = new ArrayList<>();
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp(CorpusState state) throws Exception {
+        searchService = SearchBenchmark.newSearchService(state.corpus, mode);
+        Random random = new Random(state.seed);
+        while (requests.size() < 100) {
+            SearchRequest request = new SearchRequest();
+            request.setField("fulltext");
+            request.setQuery(state.corpus.misspelled(random));
+            // 改错后恰好仍是语料中的词时会有命中，跳过
+            SearchPage page = searchService.search(request);
+            if (page.getTotalHits() == 0) {
+                requests.add(request);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        searchService.close();
+    }
+
+    @Benchmark
+    public SearchPage search() {
+        SearchRequest request = requests.get(next);
+        next = (next + 1) % requests.size();
+        return searchService.search(request);
+    }
+}
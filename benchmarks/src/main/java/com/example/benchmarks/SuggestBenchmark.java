@@ -0,0 +1,69 @@
+package com.example.benchmarks;
+
+import com.example.config.SearchProperties;
+import com.example.model.SuggestResult;
+import com.example.service.SuggestService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// 输入提示的单次延迟：模拟逐字输入，依次以标题或作者姓的每个前缀调用 SuggestService.suggest，
+// 每次按键的预算为 2 ms 以内；用 -bm sample 可查看分位数
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class SuggestBenchmark {
+
+    @Param({"title", "authors"})
+    public String field;
+
+    private SuggestService suggestService;
+    private final List<String> prefixes = new ArrayList<>();
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp(CorpusState state) throws Exception {
+        SearchProperties properties = new SearchProperties();
+        properties.setIndexDir(state.corpus.indexDir.toString());
+        properties.setSuggestReloadIntervalMs(0);
+        suggestService = SyntheticCorpus.quietly(() -> new SuggestService(properties));
+        Random random = new Random(state.seed);
+        for (int i = 0; i < 50; i++) {
+            String text = field.equals("authors") ? state.corpus.surnames.get(random.nextInt(100))
+                    : state.corpus.zipfWord(random) + " " + state.corpus.zipfWord(random);
+            for (int length = 1; length <= text.length(); length++) {
+                prefixes.add(text.substring(0, length));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        suggestService.close();
+    }
+
+    @Benchmark
+    public List<SuggestResult> suggest() throws Exception {
+        String prefix = prefixes.get(next);
+        next = (next + 1) % prefixes.size();
+        return suggestService.suggest(field, prefix, 10);
+    }
+}
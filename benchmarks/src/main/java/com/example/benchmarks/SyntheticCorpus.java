@@ -0,0 +1,187 @@
+package com.example.benchmarks;
+
+import com.example.LuceneIndexer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+
+// 合成 TEI 语料：按固定随机种子生成 docs 篇论文，结构与 GROBID 输出一致（标题、作者、机构、日期、正文、参考文献），
+// 词频服从 Zipf 分布。相同参数总是生成相同的语料，不同次运行的结果可以直接比较。
+// 语料和索引缓存在 target/bench-data 下，参数不变时后续运行直接复用。
+public final class SyntheticCorpus {
+
+    // 参考文献标题有一部分取自语料内其他论文，使被引次数有意义
+    private static final double IN_CORPUS_REFERENCE_RATE = 0.3;
+    private static final String[] INSTITUTIONS = {
+            "Stanford University", "Tsinghua University", "Peking University", "MIT", "ETH Zurich",
+            "University of Oxford", "University of Tokyo", "Carnegie Mellon University", "Zhejiang University",
+            "University of Toronto", "Max Planck Institute", "National University of Singapore"};
+    private static final String[][] PLACES = {
+            {"Stanford", "US"}, {"Beijing", "CN"}, {"Cambridge", "US"}, {"Zurich", "CH"}, {"Oxford", "GB"},
+            {"Tokyo", "JP"}, {"Pittsburgh", "US"}, {"Hangzhou", "CN"}, {"Toronto", "CA"}, {"Singapore", "SG"}};
+
+    public final Path xmlDir;
+    public final Path indexDir;
+    public final List<String> vocabulary;
+    public final List<String> surnames;
+
+    private SyntheticCorpus(Path xmlDir, Path indexDir, List<String> vocabulary, List<String> surnames) {
+        this.xmlDir = xmlDir;
+        this.indexDir = indexDir;
+        this.vocabulary = vocabulary;
+        this.surnames = surnames;
+    }
+
+    // 生成（或复用）语料及其索引
+    public static synchronized SyntheticCorpus get(int docs, int bodyWords, long seed) throws Exception {
+        Path base = Paths.get("target", "bench-data", "corpus-" + docs + "-" + bodyWords + "-" + seed).toAbsolutePath();
+        Path xmlDir = base.resolve("xml");
+        Path indexDir = base.resolve("index");
+        Random random = new Random(seed);
+        List<String> vocabulary = words(random, 5000, 3, 10);
+        List<String> surnames = words(random, 500, 4, 8);
+        SyntheticCorpus corpus = new SyntheticCorpus(xmlDir, indexDir, vocabulary, surnames);
+        Path done = base.resolve("done");
+        if (!Files.exists(done)) {
+            corpus.generate(docs, bodyWords, random);
+            corpus.index();
+            Files.createFile(done);
+        }
+        return corpus;
+    }
+
+    public File[] xmlFiles() {
+        File[] files = xmlDir.toFile().listFiles((dir, name) -> name.endsWith(".xml"));
+        Arrays.sort(files);
+        return files;
+    }
+
+    // 按 Zipf 分布抽取一个词，排名越靠前越常见
+    public String zipfWord(Random random) {
+        return vocabulary.get(zipf(random, vocabulary.size()));
+    }
+
+    // 把一个常见词改错一个字母，用于零命中的拼写建议路径
+    public String misspelled(Random random) {
+        char[] chars = vocabulary.get(random.nextInt(100)).toCharArray();
+        int i = random.nextInt(chars.length);
+        chars[i] = chars[i] == 'z' ? 'q' : (char) (chars[i] + 1);
+        return new String(chars);
+    }
+
+    private static int zipf(Random random, int n) {
+        // 连续近似：rank = n^u，u 均匀分布
+        return Math.min(n - 1, (int) Math.pow(n, random.nextDouble()) - 1);
+    }
+
+    private static List<String> words(Random random, int count, int minLength, int maxLength) {
+        List<String> words = new ArrayList<>();
+        while (words.size() < count) {
+            int length = minLength + random.nextInt(maxLength - minLength + 1);
+            StringBuilder word = new StringBuilder();
+            for (int i = 0; i < length; i++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            if (!words.contains(word.toString())) {
+                words.add(word.toString());
+            }
+        }
+        return words;
+    }
+
+    private String phrase(Random random, int words) {
+        StringBuilder phrase = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            String word = zipfWord(random);
+            phrase.append(i == 0 ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : word);
+            if (i < words - 1) {
+                phrase.append(' ');
+            }
+        }
+        return phrase.toString();
+    }
+
+    private void generate(int docs, int bodyWords, Random random) throws IOException {
+        Files.createDirectories(xmlDir);
+        List<String> titles = new ArrayList<>();
+        for (int d = 0; d < docs; d++) {
+            titles.add(phrase(random, 4 + random.nextInt(6)));
+        }
+        for (int d = 0; d < docs; d++) {
+            StringBuilder xml = new StringBuilder();
+            xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+                    .append("<TEI xml:space=\"preserve\" xmlns=\"http://www.tei-c.org/ns/1.0\">\n")
+                    .append("<teiHeader xml:lang=\"en\"><fileDesc>\n")
+                    .append("<titleStmt><title level=\"a\" type=\"main\">").append(titles.get(d)).append("</title></titleStmt>\n")
+                    .append("<sourceDesc><biblStruct><analytic>\n");
+            int authors = 1 + random.nextInt(4);
+            for (int a = 0; a < authors; a++) {
+                String surname = surnames.get(zipf(random, surnames.size()));
+                int institution = zipf(random, INSTITUTIONS.length);
+                String[] place = PLACES[institution % PLACES.length];
+                xml.append("<author><persName><forename type=\"first\">")
+                        .append(Character.toUpperCase(surname.charAt(surname.length() - 1))).append("</forename><surname>")
+                        .append(Character.toUpperCase(surname.charAt(0))).append(surname.substring(1))
+                        .append("</surname></persName><affiliation><orgName type=\"institution\">")
+                        .append(INSTITUTIONS[institution]).append("</orgName><address><settlement>").append(place[0])
+                        .append("</settlement><country key=\"").append(place[1]).append("\">").append(place[1])
+                        .append("</country></address></affiliation></author>\n");
+            }
+            int year = 1995 + random.nextInt(30);
+            xml.append("<title level=\"a\" type=\"main\">").append(titles.get(d)).append("</title></analytic>\n")
+                    .append("<monogr><imprint><date type=\"published\" when=\"").append(year).append("\">")
+                    .append(year).append("</date></imprint></monogr></biblStruct></sourceDesc>\n")
+                    .append("</fileDesc></teiHeader>\n<text xml:lang=\"en\"><body>\n");
+            for (int written = 0; written < bodyWords; ) {
+                int sentenceWords = Math.min(bodyWords - written, 40 + random.nextInt(80));
+                xml.append("<div><p>").append(phrase(random, sentenceWords)).append(".</p></div>\n");
+                written += sentenceWords;
+            }
+            xml.append("</body><back><div type=\"references\"><listBibl>\n");
+            int references = 10 + random.nextInt(20);
+            for (int r = 0; r < references; r++) {
+                String title = random.nextDouble() < IN_CORPUS_REFERENCE_RATE
+                        ? titles.get(zipf(random, titles.size())) : phrase(random, 4 + random.nextInt(6));
+                xml.append("<biblStruct><analytic><title level=\"a\" type=\"main\">").append(title)
+                        .append("</title></analytic><monogr><title level=\"j\">Journal</title></monogr></biblStruct>\n");
+            }
+            xml.append("</listBibl></div></back></text>\n</TEI>\n");
+            Files.write(xmlDir.resolve(String.format("paper%06d.xml", d)), xml.toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private void index() throws Exception {
+        quietly(() -> {
+            LuceneIndexer indexer = new LuceneIndexer(indexDir.toString(), 64, -1, true);
+            try {
+                indexer.sync(xmlFiles(), Runtime.getRuntime().availableProcessors(), 64);
+                indexer.buildSuggesters();
+            } finally {
+                indexer.close();
+            }
+            return null;
+        });
+    }
+
+    // LuceneIndexer 每个文件输出一行日志，基准测试中关闭标准输出
+    public static <T> T quietly(Callable<T> task) throws Exception {
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            return task.call();
+        } finally {
+            System.setOut(out);
+        }
+    }
+}
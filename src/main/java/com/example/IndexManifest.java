@@ -0,0 +1,138 @@
+package com.example;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 增量索引清单：记录每个已索引 XML 文件的 (路径, 大小, 修改时间, 内容哈希)，
+// 以制表符分隔的文本形式保存在索引目录下。
+public class IndexManifest {
+
+    public static final String FILE_NAME = "manifest.tsv";
+
+    private static final String HEADER = "# path\tsize\tmtime\tsha256";
+
+    private final Path path;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private IndexManifest(Path path) {
+        this.path = path;
+    }
+
+    // 创建空清单（全量重建时使用）
+    public static IndexManifest empty(Path indexDir) {
+        return new IndexManifest(indexDir.resolve(FILE_NAME));
+    }
+
+    // 读取索引目录下的清单，不存在时返回 null
+    public static IndexManifest load(Path indexDir) throws IOException {
+        Path path = indexDir.resolve(FILE_NAME);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        IndexManifest manifest = new IndexManifest(path);
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split("\t");
+                if (parts.length != 4) {
+                    throw new IOException("Malformed manifest line: " + line);
+                }
+                manifest.entries.put(parts[0], new Entry(Long.parseLong(parts[1]), Long.parseLong(parts[2]), parts[3]));
+            }
+        }
+        return manifest;
+    }
+
+    // 先写临时文件再原子替换，避免中途崩溃留下半个清单
+    public synchronized void save() throws IOException {
+        Path tmp = path.resolveSibling(FILE_NAME + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                Entry entry = e.getValue();
+                writer.write(e.getKey() + "\t" + entry.size + "\t" + entry.mtime + "\t" + entry.hash);
+                writer.newLine();
+            }
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public Entry get(String id) {
+        return entries.get(id);
+    }
+
+    public void put(String id, Entry entry) {
+        entries.put(id, entry);
+    }
+
+    public void remove(String id) {
+        entries.remove(id);
+    }
+
+    public Set<String> ids() {
+        return entries.keySet();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // 计算文件内容的 SHA-256 哈希
+    public static String hash(File file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    public static class Entry {
+        final long size;
+        final long mtime;
+        final String hash;
+
+        public Entry(long size, long mtime, String hash) {
+            this.size = size;
+            this.mtime = mtime;
+            this.hash = hash;
+        }
+
+        // 大小和修改时间都未变时认为文件未变，无需重新计算哈希
+        public boolean sameStat(File file) {
+            return size == file.length() && mtime == file.lastModified();
+        }
+
+        public String getHash() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.regex.Pattern;
+
+// 蓝绿重建的索引指针：<索引目录>.current 文件保存当前生效的索引目录。
+// LuceneIndexer --blue-green 在旁路目录 <索引目录>-<时间戳> 中全量重建并验证后改写指针，
+// 检索服务发现指针变化（或收到管理接口的切换请求）后原子切换到新目录。没有指针文件时直接使用配置的索引目录。
+public final class IndexPointer {
+
+    private static final DateTimeFormatter VERSION_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final Pattern VERSION_SUFFIX = Pattern.compile("-\\d{8}-\\d{6}");
+
+    private IndexPointer() {
+    }
+
+    public static Path pointerFile(String indexDir) {
+        return Paths.get(indexDir + ".current").toAbsolutePath();
+    }
+
+    // 当前生效的索引目录；指针中的相对路径相对于指针文件所在目录
+    public static String resolve(String indexDir) throws IOException {
+        Path pointer = pointerFile(indexDir);
+        if (!Files.exists(pointer)) {
+            return indexDir;
+        }
+        String target = new String(Files.readAllBytes(pointer), StandardCharsets.UTF_8).trim();
+        if (target.isEmpty()) {
+            return indexDir;
+        }
+        return pointer.getParent().resolve(target).normalize().toString();
+    }
+
+    // 先写临时文件再原子改名，读取方只会看到旧指针或新指针
+    public static void write(String indexDir, String activeDir) throws IOException {
+        Path pointer = pointerFile(indexDir);
+        Path target = Paths.get(activeDir).toAbsolutePath().normalize();
+        String value = target.getParent().equals(pointer.getParent()) ? target.getFileName().toString() : target.toString();
+        Path tmp = pointer.resolveSibling(pointer.getFileName() + ".tmp");
+        Files.write(tmp, (value + "\n").getBytes(StandardCharsets.UTF_8));
+        Files.move(tmp, pointer, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // 新的旁路目录名：<索引目录>-yyyyMMdd-HHmmss
+    public static String newVersionDir(String indexDir) {
+        String dir = indexDir + "-" + LocalDateTime.now().format(VERSION_FORMAT);
+        for (int i = 2; Files.exists(Paths.get(dir)); i++) {
+            dir = indexDir + "-" + LocalDateTime.now().format(VERSION_FORMAT) + "-" + i;
+        }
+        return dir;
+    }
+
+    // 是否为蓝绿重建产生的旁路目录（只有这类目录会在切换后被自动清理）
+    public static boolean isVersionDir(String indexDir, String dir) {
+        Path base = Paths.get(indexDir).toAbsolutePath().normalize();
+        Path candidate = Paths.get(dir).toAbsolutePath().normalize();
+        String name = candidate.getFileName().toString();
+        String prefix = base.getFileName().toString();
+        return candidate.getParent().equals(base.getParent()) && name.startsWith(prefix)
+                && VERSION_SUFFIX.matcher(name.substring(prefix.length())).lookingAt();
+    }
+
+    // 删除索引目录及其输入提示、拼写检查侧索引（<目录>_<字段>_suggest、<目录>_<字段>_spell）
+    public static void delete(String dir) throws IOException {
+        Path path = Paths.get(dir).toAbsolutePath().normalize();
+        String prefix = path.getFileName() + "_";
+        try (DirectoryStream<Path> siblings = Files.newDirectoryStream(path.getParent(), prefix + "*")) {
+            for (Path sibling : siblings) {
+                String name = sibling.getFileName().toString();
+                if (name.endsWith("_suggest") || name.endsWith("_spell")) {
+                    LuceneIndexer.deleteRecursively(sibling);
+                }
+            }
+        }
+        if (Files.exists(path)) {
+            LuceneIndexer.deleteRecursively(path);
+        }
+    }
+}
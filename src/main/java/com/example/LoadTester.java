@@ -0,0 +1,346 @@
+package com.example;
+
+import com.example.model.SearchRequest;
+import com.example.service.QueryLog;
+
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 压力测试：按查询日志（QueryLog 格式）向运行中的检索服务重放 /api/search/page 请求，
+// 报告吞吐量、错误率和延迟分位数。两种负载模型：
+//   --rate N：固定到达速率（开放模型），每个请求有计划发出时间，延迟从计划时间算起，服务变慢时请求排队的时间也计入；
+//   --concurrency C：固定并发（闭合模型），C 个客户端依次发送，额外按期望间隔补齐被“协调遗漏”的样本（与 HdrHistogram 的修正方法相同）。
+// 用法：LoadTester --log queries.log [--url http://localhost:8083] (--rate 200 | --concurrency 16)
+//       [--duration 60] [--warmup 10] [--max-in-flight 1000] [--expected-interval-ms 0] [--histogram-out latency.hgrm]
+public class LoadTester {
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1).connectTimeout(Duration.ofSeconds(5)).build();
+    private final String baseUrl;
+    private final List<String> paths = new ArrayList<>();
+
+    // 测量阶段的样本（纳秒）：response 从计划时间起算，service 从实际发出时起算
+    private final LongList responseTimes = new LongList();
+    private final LongList serviceTimes = new LongList();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    public LoadTester(String baseUrl, List<SearchRequest> log) {
+        this.baseUrl = baseUrl;
+        for (SearchRequest request : log) {
+            paths.add(path(request));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = "http://localhost:8083";
+        String log = "queries.log";
+        double rate = 0;
+        int concurrency = 0;
+        int duration = 60;
+        int warmup = 10;
+        int maxInFlight = 1000;
+        double expectedIntervalMs = 0;
+        String histogramOut = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--url":
+                    url = args[++i];
+                    break;
+                case "--log":
+                    log = args[++i];
+                    break;
+                case "--rate":
+                    rate = Double.parseDouble(args[++i]);
+                    break;
+                case "--concurrency":
+                    concurrency = Integer.parseInt(args[++i]);
+                    break;
+                case "--duration":
+                    duration = Integer.parseInt(args[++i]);
+                    break;
+                case "--warmup":
+                    warmup = Integer.parseInt(args[++i]);
+                    break;
+                case "--max-in-flight":
+                    maxInFlight = Integer.parseInt(args[++i]);
+                    break;
+                case "--expected-interval-ms":
+                    expectedIntervalMs = Double.parseDouble(args[++i]);
+                    break;
+                case "--histogram-out":
+                    histogramOut = args[++i];
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(2);
+            }
+        }
+        if ((rate > 0) == (concurrency > 0)) {
+            System.err.println("Specify exactly one of --rate or --concurrency");
+            System.exit(2);
+        }
+        List<SearchRequest> entries = QueryLog.read(Paths.get(log), Integer.MAX_VALUE);
+        if (entries.isEmpty()) {
+            System.err.println("No queries found in " + log);
+            System.exit(2);
+        }
+
+        LoadTester tester = new LoadTester(url, entries);
+        System.out.printf("%s against %s, %d queries from %s, %d s warmup + %d s measured%n",
+                rate > 0 ? String.format("Fixed rate %.1f req/s", rate) : "Fixed concurrency " + concurrency,
+                url, entries.size(), log, warmup, duration);
+        long measureStart = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmup);
+        long end = measureStart + TimeUnit.SECONDS.toNanos(duration);
+        if (rate > 0) {
+            tester.runFixedRate(rate, maxInFlight, measureStart, end);
+        } else {
+            tester.runFixedConcurrency(concurrency, measureStart, end);
+        }
+        tester.report(duration, concurrency > 0, expectedIntervalMs, histogramOut);
+    }
+
+    private static String path(SearchRequest request) {
+        StringBuilder path = new StringBuilder("/api/search/page?field=").append(encode(request.getField()))
+                .append("&query=").append(encode(request.getQuery()))
+                .append("&size=").append(request.getSize());
+        if (request.getFields() != null) {
+            path.append("&fields=").append(encode(request.getFields()));
+        }
+        if (request.getYearFrom() != null) {
+            path.append("&yearFrom=").append(request.getYearFrom());
+        }
+        if (request.getYearTo() != null) {
+            path.append("&yearTo=").append(request.getYearTo());
+        }
+        if (request.getFacets() != null) {
+            path.append("&facets=").append(encode(request.getFacets())).append("&facetCount=").append(request.getFacetCount());
+        }
+        return path.toString();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private HttpRequest httpRequest(long i) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + paths.get((int) (i % paths.size()))))
+                .timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    // 开放模型：第 i 个请求的计划发出时间为 start + i / rate，与服务响应快慢无关
+    public void runFixedRate(double rate, int maxInFlight, long measureStart, long end) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        // 每个在途请求占用一个发送线程，空闲线程会被复用
+        ExecutorService senders = Executors.newCachedThreadPool();
+        long start = System.nanoTime();
+        double intervalNanos = 1e9 / rate;
+        for (long i = 0; ; i++) {
+            long intended = start + (long) (i * intervalNanos);
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            // 在途请求达到上限时发送被推迟，推迟的时间计入该请求的响应时间
+            inFlight.acquire();
+            long index = i;
+            senders.execute(() -> {
+                long sent = System.nanoTime();
+                boolean failed = send(index);
+                long now = System.nanoTime();
+                record(intended >= measureStart, now - intended, now - sent, failed);
+                inFlight.release();
+            });
+        }
+        // 等待所有在途请求完成
+        inFlight.acquire(maxInFlight);
+        senders.shutdown();
+    }
+
+    // 闭合模型：每个客户端收到响应后立即发送下一个请求
+    public void runFixedConcurrency(int concurrency, long measureStart, long end) throws InterruptedException {
+        AtomicLong counter = new AtomicLong();
+        List<Thread> threads = new ArrayList<>();
+        for (int c = 0; c < concurrency; c++) {
+            Thread thread = new Thread(() -> {
+                while (System.nanoTime() < end) {
+                    long sent = System.nanoTime();
+                    boolean failed = send(counter.getAndIncrement());
+                    long elapsed = System.nanoTime() - sent;
+                    record(sent >= measureStart, elapsed, elapsed, failed);
+                }
+            }, "load-client-" + c);
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    public long requests() {
+        return requests.get();
+    }
+
+    public long errors() {
+        return errors.get();
+    }
+
+    // 测量阶段响应时间的分位数（毫秒），固定速率时从计划发出时间算起
+    public double responsePercentile(double p) {
+        return percentile(responseTimes.sorted(), p);
+    }
+
+    // 同步发送第 i 个请求，返回是否失败（连接错误或 4xx/5xx）
+    private boolean send(long i) {
+        try {
+            return client.send(httpRequest(i), HttpResponse.BodyHandlers.discarding()).statusCode() >= 400;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return true;
+        } catch (Exception e) {
+            return true;
+        }
+    }
+
+    private void record(boolean measured, long responseTime, long serviceTime, boolean failed) {
+        if (!measured) {
+            return;
+        }
+        requests.incrementAndGet();
+        if (failed) {
+            errors.incrementAndGet();
+        }
+        responseTimes.add(responseTime);
+        serviceTimes.add(serviceTime);
+    }
+
+    private void report(int duration, boolean closedModel, double expectedIntervalMs, String histogramOut) throws Exception {
+        long[] service = serviceTimes.sorted();
+        long[] response = responseTimes.sorted();
+        // 闭合模型没有计划发出时间，按期望间隔补齐样本；未指定时使用服务时间的中位数
+        if (closedModel && service.length > 0) {
+            long interval = expectedIntervalMs > 0 ? (long) (expectedIntervalMs * 1e6) : service[service.length / 2];
+            response = correctForCoordinatedOmission(service, interval);
+            System.out.printf("Coordinated omission correction with expected interval %.3f ms%n", interval / 1e6);
+        }
+
+        long total = requests.get();
+        System.out.printf("Requests %d, errors %d (%.2f%%), throughput %.1f req/s%n",
+                total, errors.get(), total == 0 ? 0 : errors.get() * 100.0 / total, total / (double) duration);
+        System.out.printf("%-22s %10s %10s %10s %10s %10s %10s%n", "latency (ms)", "p50", "p95", "p99", "p99.9", "max", "samples");
+        printPercentiles("service time", service);
+        printPercentiles("response time", response);
+
+        if (histogramOut != null) {
+            try (PrintWriter out = new PrintWriter(histogramOut, StandardCharsets.UTF_8)) {
+                writeDistribution(out, response);
+            }
+            System.out.println("Wrote corrected response time distribution to " + histogramOut);
+        }
+    }
+
+    // 每个超过期望间隔的样本补上 latency - k * interval（k = 1, 2, ...）的样本，代表本应在等待期间发出的请求
+    static long[] correctForCoordinatedOmission(long[] sorted, long interval) {
+        LongList corrected = new LongList();
+        for (long latency : sorted) {
+            corrected.add(latency);
+            if (interval > 0) {
+                for (long missing = latency - interval; missing >= interval; missing -= interval) {
+                    corrected.add(missing);
+                }
+            }
+        }
+        return corrected.sorted();
+    }
+
+    private static void printPercentiles(String name, long[] sorted) {
+        System.out.printf("%-22s %10.3f %10.3f %10.3f %10.3f %10.3f %10d%n", name, percentile(sorted, 0.50),
+                percentile(sorted, 0.95), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                percentile(sorted, 1.0), sorted.length);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    // 与 HdrHistogram 的 .hgrm 文本格式相同，可以用其绘图工具直接对比多次运行
+    private static void writeDistribution(PrintWriter out, long[] sorted) {
+        out.printf("%12s %14s %10s %14s%n%n", "Value", "Percentile", "TotalCount", "1/(1-Percentile)");
+        if (sorted.length == 0) {
+            return;
+        }
+        // 每次把剩余部分减半：50%、75%、87.5%……，直到最后一个样本
+        for (double remaining = 1.0; ; remaining /= 2) {
+            for (int step = 0; step < 5; step++) {
+                double p = 1 - remaining + remaining / 2 * step / 5;
+                int count = Math.max(1, (int) Math.ceil(p * sorted.length));
+                out.printf("%12.3f %2.12f %10d %14.2f%n", sorted[count - 1] / 1e6, p, count, 1 / (1 - p));
+            }
+            if (remaining * sorted.length < 1) {
+                break;
+            }
+        }
+        out.printf("%12.3f %2.12f %10d%n", sorted[sorted.length - 1] / 1e6, 1.0, sorted.length);
+        out.printf("#[Mean    = %12.3f, StdDeviation   = %12.3f]%n", mean(sorted) / 1e6, stdDev(sorted) / 1e6);
+        out.printf("#[Max     = %12.3f, Total count    = %12d]%n", sorted[sorted.length - 1] / 1e6, sorted.length);
+    }
+
+    private static double mean(long[] values) {
+        double sum = 0;
+        for (long value : values) {
+            sum += value;
+        }
+        return sum / values.length;
+    }
+
+    private static double stdDev(long[] values) {
+        double mean = mean(values);
+        double sum = 0;
+        for (long value : values) {
+            sum += (value - mean) * (value - mean);
+        }
+        return Math.sqrt(sum / values.length);
+    }
+
+    // 线程安全的可增长 long 数组
+    private static final class LongList {
+        private long[] values = new long[1024];
+        private int size;
+
+        synchronized void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(values, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
@@ -2,211 +2,330 @@ package com.example;
 
 import org.apache.lucene.document.Document; // Lucene Document
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedSetDocValuesField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
-import org.apache.lucene.analysis.en.EnglishAnalyzer;
 import org.apache.lucene.analysis.Analyzer;
-import org.apache.lucene.analysis.TokenStream;
-import org.apache.lucene.analysis.en.PorterStemFilter;
-import org.apache.lucene.analysis.Tokenizer;
-import org.apache.lucene.analysis.standard.StandardTokenizer;
-import org.apache.lucene.analysis.LowerCaseFilter;
-import org.apache.lucene.analysis.core.StopFilter;
 import org.apache.lucene.index.*;
 import org.apache.lucene.store.*;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.IOUtils;
+import com.example.model.SearchRequest;
+import com.example.service.QueryLog;
 import java.io.File;
-import org.w3c.dom.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 public class LuceneIndexer {
 
+    // 文档唯一标识字段，取 XML 目录下的相对路径（目录为平铺结构，即文件名）
+    public static final String ID_FIELD = "id";
+
+    // 多 shard 布局：<索引目录>/shard-0 … shard-(K-1)，每个 shard 是一个独立的 Lucene 索引
+    public static final String SHARD_PREFIX = "shard-";
+    private static final Pattern SHARD_NAME = Pattern.compile(Pattern.quote(SHARD_PREFIX) + "\\d+");
+
+    // 蓝绿重建验证时默认抽查的文档数，以及 field=all 的冒烟查询检索的字段
+    private static final int SMOKE_SAMPLE_DOCS = 5;
+    private static final String[] SMOKE_ALL_FIELDS = {"title", "authors", "affiliation", "address", "fulltext"};
+
+    // 索引结构版本，保存在提交的 userData 中；字段定义变化时递增，已有索引版本不一致时自动全量重建
+    public static final String SCHEMA_VERSION_KEY = "schemaVersion";
+    public static final String SCHEMA_VERSION = "5";
+
+    // 出版年份：IntPoint 用于范围过滤，NumericDocValues 用于按年份统计
+    public static final String YEAR_FIELD = "year";
+    // 机构的分面字段：每个机构一个 SortedSetDocValues 值
+    public static final String AFFILIATION_FACET_FIELD = "affiliationFacet";
+
+    // 日期文本中的四位年份
+    private static final Pattern YEAR_PATTERN = Pattern.compile("(?<!\\d)(1[5-9]\\d\\d|20\\d\\d)(?!\\d)");
+
+    // 可高亮的文本字段：在倒排表中额外记录偏移量，检索时 UnifiedHighlighter 直接使用偏移量定位片段，
+    // 无需对存储的全文重新分析
+    public static final FieldType HIGHLIGHTABLE_TEXT = new FieldType(TextField.TYPE_STORED);
+
+    static {
+        HIGHLIGHTABLE_TEXT.setIndexOptions(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS);
+        HIGHLIGHTABLE_TEXT.freeze();
+    }
+
     private IndexWriter writer;
+    private final String indexDir;
+    // 增量索引清单
+    private IndexManifest manifest;
+    // 是否使用 DOM 解析器（默认使用流式解析器 TEIStreamParser）
+    private boolean useDomParser;
 
     // 构造函数，初始化索引写入器
     public LuceneIndexer(String indexDir) throws Exception {
+        this(indexDir, IndexWriterConfig.DEFAULT_RAM_BUFFER_SIZE_MB, ConcurrentMergeScheduler.AUTO_DETECT_MERGES_AND_THREADS, false);
+    }
+
+    // 构造函数，可配置 RAM 缓冲区大小和合并线程数（mergeThreads 为 -1 时自动检测）
+    // fullRebuild 为 true 时清空已有索引重建，否则在已有索引上增量更新
+    public LuceneIndexer(String indexDir, double ramBufferMB, int mergeThreads, boolean fullRebuild) throws Exception {
+        this.indexDir = indexDir;
         // 创建索引存储目录
-        Directory dir = FSDirectory.open(new File(indexDir).toPath());
+        Path indexPath = new File(indexDir).toPath();
+        Directory dir = FSDirectory.open(indexPath);
         // 使用自定义的 PorterStemAnalyzer 配置索引写入器
         IndexWriterConfig config = new IndexWriterConfig(new PorterStemAnalyzer());
+        // 没有清单说明是新索引或没有 id 字段的旧索引，无法增量更新，只能全量重建
+        manifest = fullRebuild ? null : IndexManifest.load(indexPath);
+        if (manifest != null && !SCHEMA_VERSION.equals(schemaVersion(dir))) {
+            System.out.println("Index schema changed, rebuilding from scratch");
+            manifest = null;
+        }
+        if (manifest == null) {
+            config.setOpenMode(IndexWriterConfig.OpenMode.CREATE);
+            manifest = IndexManifest.empty(indexPath);
+        }
+        // RAM 缓冲区越大，刷盘产生的小段越少
+        config.setRAMBufferSizeMB(ramBufferMB);
+        // 配置后台合并线程
+        ConcurrentMergeScheduler mergeScheduler = new ConcurrentMergeScheduler();
+        if (mergeThreads != ConcurrentMergeScheduler.AUTO_DETECT_MERGES_AND_THREADS) {
+            mergeScheduler.setMaxMergesAndThreads(mergeThreads + 5, mergeThreads);
+        }
+        config.setMergeScheduler(mergeScheduler);
         // 创建索引写入器，用于向索引中写入文档
         writer = new IndexWriter(dir, config);
+        writer.setLiveCommitData(Collections.singletonMap(SCHEMA_VERSION_KEY, SCHEMA_VERSION).entrySet());
+    }
+
+    // 读取已有索引最近一次提交记录的结构版本，没有索引或未记录时返回 null
+    private static String schemaVersion(Directory dir) throws Exception {
+        if (!DirectoryReader.indexExists(dir)) {
+            return null;
+        }
+        return SegmentInfos.readLatestCommit(dir).getUserData().get(SCHEMA_VERSION_KEY);
+    }
+
+    // 供应用内实时索引使用，以便从同一个 IndexWriter 打开近实时读取器
+    public IndexWriter getWriter() {
+        return writer;
+    }
+
+    public void setUseDomParser(boolean useDomParser) {
+        this.useDomParser = useDomParser;
+    }
+
+    // 提交索引，提交成功后再保存清单，保证清单不会记录未提交的文档
+    public void commit() throws Exception {
+        writer.commit();
+        manifest.save();
+    }
+
+    // 根据当前索引内容（含未提交的修改）重建标题和作者的输入提示索引
+    public void buildSuggesters() throws Exception {
+        try (DirectoryReader reader = DirectoryReader.open(writer)) {
+            SuggestIndexBuilder.build(reader, indexDir);
+        }
     }
 
     // 关闭索引写入器
     public void close() throws Exception {
         writer.close();
+        manifest.save();
     }
 
-    // 索引 XML 文件内容
+    // 文档唯一标识
+    public static String docId(File file) {
+        return file.getName();
+    }
+
+    // 索引 XML 文件内容，已存在相同 id 的文档时替换
     public void indexXML(File file) throws Exception {
-        // 解析 XML 文件
-        org.w3c.dom.Document xmlDocument = XMLParser.parseXML(file);
-        Element root = xmlDocument.getDocumentElement();
+        indexXML(file, file.length(), file.lastModified(), IndexManifest.hash(file));
+    }
 
-        // 定义命名空间 URI
-        String namespaceURI = "http://www.tei-c.org/ns/1.0";
+    private void indexXML(File file, long size, long mtime, String hash) throws Exception {
+        System.out.println("Indexing file: " + file.getName());
+        String id = docId(file);
+        // 将文档写入索引（IndexWriter 是线程安全的，可被多个解析线程同时调用）
+        writer.updateDocument(new Term(ID_FIELD, id), buildDocument(file));
+        manifest.put(id, new IndexManifest.Entry(size, mtime, hash));
+    }
 
-        // 创建一个新的 Lucene 文档对象
-        Document luceneDoc = new Document();
+    // 仅当文件相对清单发生变化时才重新索引，返回是否写入了索引
+    public boolean indexIfChanged(File file) throws Exception {
+        String id = docId(file);
+        IndexManifest.Entry old = manifest.get(id);
+        if (old != null && old.sameStat(file)) {
+            return false;
+        }
+        // 先取大小和修改时间再算哈希，若计算期间文件被改写，下次运行仍会重新检查
+        long size = file.length();
+        long mtime = file.lastModified();
+        String hash = IndexManifest.hash(file);
+        if (old != null && old.getHash().equals(hash)) {
+            // 内容未变（例如只是被 touch），只更新清单
+            manifest.put(id, new IndexManifest.Entry(size, mtime, hash));
+            return false;
+        }
+        indexXML(file, size, mtime, hash);
+        return true;
+    }
+
+    // 从索引和清单中删除文档
+    public void deleteXML(String id) throws Exception {
+        writer.deleteDocuments(new Term(ID_FIELD, id));
+        manifest.remove(id);
+    }
 
-        // 定位到 teiHeader 节点
-        NodeList teiHeaderList = root.getElementsByTagNameNS(namespaceURI, "teiHeader");
-        if (teiHeaderList.getLength() > 0) {
-            Element teiHeader = (Element) teiHeaderList.item(0);
-
-            // 定位到 fileDesc 节点
-            NodeList fileDescList = teiHeader.getElementsByTagNameNS(namespaceURI, "fileDesc");
-            if (fileDescList.getLength() > 0) {
-                Element fileDesc = (Element) fileDescList.item(0);
-
-                // 定位到 titleStmt 节点
-                NodeList titleStmtList = fileDesc.getElementsByTagNameNS(namespaceURI, "titleStmt");
-                if (titleStmtList.getLength() > 0) {
-                    Element titleStmt = (Element) titleStmtList.item(0);
-
-                    // 获取标题并添加到 Lucene 文档
-                    String title = XMLParser.getTextFromTag(titleStmt, namespaceURI, "title");
-                    if (title != null) {
-                        luceneDoc.add(new TextField("title", title, Field.Store.YES));
+    // 将索引与 XML 目录同步：更新新增或修改的文件，删除已移除的文件，跳过未变的文件
+    public void sync(File[] xmlFiles, int threads, int queueSize) throws Exception {
+        Set<String> present = new HashSet<>();
+        for (File file : xmlFiles) {
+            present.add(docId(file));
+        }
+        List<String> removed = new ArrayList<>();
+        for (String id : manifest.ids()) {
+            if (!present.contains(id)) {
+                removed.add(id);
+            }
+        }
+        for (String id : removed) {
+            System.out.println("Removing file: " + id);
+            deleteXML(id);
+        }
+        indexAll(Arrays.asList(xmlFiles), threads, queueSize);
+        System.out.println("Removed " + removed.size() + " docs");
+        commit();
+    }
+
+    // 使用多个解析线程并发索引一批 XML 文件（未变化的文件跳过），返回实际索引的文档数
+    public int indexAll(List<File> files, int threads, int queueSize) throws InterruptedException {
+        AtomicInteger indexed = new AtomicInteger();
+        AtomicInteger unchanged = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        // 有界队列 + CallerRunsPolicy：队列满时由提交线程自己解析，避免无限堆积
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), new ThreadPoolExecutor.CallerRunsPolicy());
+        long start = System.nanoTime();
+        for (File file : files) {
+            executor.execute(() -> {
+                try {
+                    if (indexIfChanged(file)) {
+                        indexed.incrementAndGet();
+                    } else {
+                        unchanged.incrementAndGet();
                     }
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                    System.err.println("Error indexing file " + file.getName() + ": " + e.getMessage());
                 }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
 
-                // 定位到 sourceDesc 节点
-                NodeList sourceDescList = fileDesc.getElementsByTagNameNS(namespaceURI, "sourceDesc");
-                if (sourceDescList.getLength() > 0) {
-                    Element sourceDesc = (Element) sourceDescList.item(0);
-
-                    // 定位到 biblStruct 节点
-                    NodeList biblStructList = sourceDesc.getElementsByTagNameNS(namespaceURI, "biblStruct");
-                    if (biblStructList.getLength() > 0) {
-                        Element biblStruct = (Element) biblStructList.item(0);
-
-                        // 定位到 analytic 节点
-                        NodeList analyticList = biblStruct.getElementsByTagNameNS(namespaceURI, "analytic");
-                        if (analyticList.getLength() > 0) {
-                            Element analytic = (Element) analyticList.item(0);
-
-                            // 获取作者信息并添加到 Lucene 文档
-                            String authors = XMLParser.getAuthors(analytic, namespaceURI);
-                            if (authors != null && !authors.isEmpty()) {
-                                luceneDoc.add(new TextField("authors", authors, Field.Store.YES));
-                            }
-
-                            // 获取机构信息并添加到 Lucene 文档
-                            String affiliation = getAffiliation(analytic, namespaceURI);
-                            if (affiliation != null && !affiliation.isEmpty()) {
-                                luceneDoc.add(new TextField("affiliation", affiliation, Field.Store.YES));
-                            }
-
-                            // 获取地址信息并添加到 Lucene 文档
-                            String address = getAddress(analytic, namespaceURI);
-                            if (address != null && !address.isEmpty()) {
-                                luceneDoc.add(new TextField("address", address, Field.Store.YES));
-                            }
-                        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Indexed %d docs (%d unchanged, %d failed) with %d threads in %.1f s, %.1f docs/sec%n",
+                indexed.get(), unchanged.get(), failed.get(), threads, seconds, indexed.get() / Math.max(seconds, 1e-9));
+        return indexed.get();
+    }
 
-                        // 定位到 monogr 节点
-                        NodeList monogrList = biblStruct.getElementsByTagNameNS(namespaceURI, "monogr");
-                        if (monogrList.getLength() > 0) {
-                            Element monogr = (Element) monogrList.item(0);
-
-                            // 定位到 imprint 节点
-                            NodeList imprintList = monogr.getElementsByTagNameNS(namespaceURI, "imprint");
-                            if (imprintList.getLength() > 0) {
-                                Element imprint = (Element) imprintList.item(0);
-
-                                // 获取日期并添加到 Lucene 文档
-                                String date = XMLParser.getTextFromTag(imprint, namespaceURI, "date");
-                                if (date != null) {
-                                    luceneDoc.add(new StringField("date", date, Field.Store.YES));
-                                }
-                            }
-                        }
-                    }
+    // 解析 XML 文件并构建 Lucene 文档，不涉及共享状态，可并发调用
+    Document buildDocument(File file) throws Exception {
+        // 抽取 TEI 各字段，默认使用流式解析器，可切换回 DOM 解析器进行对比
+        TEIRecord record = useDomParser ? XMLParser.extractTEI(file) : TEIStreamParser.parse(file);
+
+        // 创建一个新的 Lucene 文档对象
+        Document luceneDoc = new Document();
+        luceneDoc.add(new StringField(ID_FIELD, docId(file), Field.Store.YES));
+
+        if (record.getTitle() != null) {
+            luceneDoc.add(new Field("title", record.getTitle(), HIGHLIGHTABLE_TEXT));
+        }
+        if (record.getAuthors() != null) {
+            luceneDoc.add(new Field("authors", record.getAuthors(), HIGHLIGHTABLE_TEXT));
+        }
+        if (record.getAffiliation() != null) {
+            luceneDoc.add(new Field("affiliation", record.getAffiliation(), HIGHLIGHTABLE_TEXT));
+        }
+        if (record.getAddress() != null) {
+            luceneDoc.add(new Field("address", record.getAddress(), HIGHLIGHTABLE_TEXT));
+        }
+        if (record.getDate() != null) {
+            luceneDoc.add(new StringField("date", record.getDate(), Field.Store.YES));
+        }
+        Integer year = parseYear(record.getDateWhen(), record.getDate());
+        if (year != null) {
+            luceneDoc.add(new IntPoint(YEAR_FIELD, year));
+            luceneDoc.add(new NumericDocValuesField(YEAR_FIELD, year));
+        }
+        if (record.getAffiliation() != null) {
+            Set<String> affiliations = new HashSet<>();
+            for (String affiliation : record.getAffiliation().split(";")) {
+                affiliation = affiliation.trim();
+                if (!affiliation.isEmpty() && affiliations.add(affiliation)) {
+                    luceneDoc.add(new SortedSetDocValuesField(AFFILIATION_FACET_FIELD, new BytesRef(affiliation)));
                 }
             }
         }
-
-        // 获取全文内容并添加到 Lucene 文档（假设在 <text> 元素中）
-        String fulltext = getFullText(root, namespaceURI);
-        if (fulltext != null) {
-            luceneDoc.add(new TextField("fulltext", fulltext, Field.Store.YES));
+        // 参考文献标题只用于统计被引次数，不存储也不参与检索
+        Set<String> citedTitles = new HashSet<>();
+        for (String referenceTitle : record.getReferenceTitles()) {
+            String key = SuggestIndexBuilder.normalizeTitle(referenceTitle);
+            if (!key.isEmpty() && citedTitles.add(key)) {
+                luceneDoc.add(new SortedSetDocValuesField(SuggestIndexBuilder.CITED_TITLES_FIELD, new BytesRef(key)));
+            }
         }
-        
+
         // 获取 PDF 文件路径并添加到 Lucene 文档
         String pdfPath = getPDFPath(file);
         if (pdfPath != null) {
             luceneDoc.add(new StringField("pdfPath", pdfPath, Field.Store.YES));
         }
-
-        // 将文档写入索引
-        writer.addDocument(luceneDoc);
-    }
-
-    // 获取机构信息
-    private String getAffiliation(Element analytic, String namespaceURI) {
-        StringBuilder affiliations = new StringBuilder();
-        // 获取 author 节点列表
-        NodeList authorList = analytic.getElementsByTagNameNS(namespaceURI, "author");
-        for (int i = 0; i < authorList.getLength(); i++) {
-            Element authorElement = (Element) authorList.item(i);
-            // 获取 affiliation 节点列表
-            NodeList affiliationList = authorElement.getElementsByTagNameNS(namespaceURI, "affiliation");
-            for (int j = 0; j < affiliationList.getLength(); j++) {
-                Element affiliationElement = (Element) affiliationList.item(j);
-                // 获取机构名称并添加到结果字符串中
-                String orgName = XMLParser.getTextFromTag(affiliationElement, namespaceURI, "orgName");
-                if (orgName != null) {
-                    affiliations.append(orgName).append("; ");
-                }
-            }
+        // 全文放在最后：存储字段按添加顺序保存，只读取元数据的检索可以在全文之前停止解码
+        if (record.getFulltext() != null) {
+            luceneDoc.add(new Field("fulltext", record.getFulltext(), HIGHLIGHTABLE_TEXT));
         }
-        return affiliations.toString().trim();
-    }
-
-    // 获取地址信息
-    private String getAddress(Element analytic, String namespaceURI) {
-        StringBuilder addresses = new StringBuilder();
-        // 获取 author 节点列表
-        NodeList authorList = analytic.getElementsByTagNameNS(namespaceURI, "author");
-        for (int i = 0; i < authorList.getLength(); i++) {
-            Element authorElement = (Element) authorList.item(i);
-            // 获取 affiliation 节点列表
-            NodeList affiliationList = authorElement.getElementsByTagNameNS(namespaceURI, "affiliation");
-            for (int j = 0; j < affiliationList.getLength(); j++) {
-                Element affiliationElement = (Element) affiliationList.item(j);
-                // 获取 address 节点列表
-                NodeList addressList = affiliationElement.getElementsByTagNameNS(namespaceURI, "address");
-                for (int k = 0; k < addressList.getLength(); k++) {
-                    Element addressElement = (Element) addressList.item(k);
-                    // 获取地址的各个部分并添加到结果字符串中
-                    String settlement = XMLParser.getTextFromTag(addressElement, namespaceURI, "settlement");
-                    String region = XMLParser.getTextFromTag(addressElement, namespaceURI, "region");
-                    String country = XMLParser.getTextFromTag(addressElement, namespaceURI, "country");
-                    StringBuilder address = new StringBuilder();
-                    if (settlement != null) {
-                        address.append(settlement).append(", ");
-                    }
-                    if (region != null) {
-                        address.append(region).append(", ");
-                    }
-                    if (country != null) {
-                        address.append(country);
-                    }
-                    addresses.append(address.toString().trim()).append("; ");
-                }
-            }
-        }
-        return addresses.toString().trim();
+
+        return luceneDoc;
     }
 
-    // 获取全文内容
-    private String getFullText(Element root, String namespaceURI) {
-        // 获取 text 节点列表
-        NodeList textList = root.getElementsByTagNameNS(namespaceURI, "text");
-        if (textList.getLength() > 0) {
-            Element textElement = (Element) textList.item(0);
-            // 返回全文内容
-            return textElement.getTextContent().trim();
+    // 解析出版年份：优先使用 when 属性（ISO 格式），否则从日期文本中查找四位年份，都没有时返回 null
+    static Integer parseYear(String when, String text) {
+        for (String value : new String[]{when, text}) {
+            if (value != null) {
+                Matcher matcher = YEAR_PATTERN.matcher(value);
+                if (matcher.find()) {
+                    return Integer.parseInt(matcher.group(1));
+                }
+            }
         }
         return null;
     }
@@ -227,41 +346,400 @@ public class LuceneIndexer {
         }
     }
 
+    // 目录下是否已有单一索引的提交
+    private static boolean hasCommit(String indexDir) throws IOException {
+        if (!Files.isDirectory(Paths.get(indexDir))) {
+            return false;
+        }
+        try (Directory dir = FSDirectory.open(Paths.get(indexDir))) {
+            return DirectoryReader.indexExists(dir);
+        }
+    }
+
+    // 多 shard 布局下第 shard 个 shard 的索引目录
+    public static String shardDir(String indexDir, int shard) {
+        return Paths.get(indexDir, SHARD_PREFIX + shard).toString();
+    }
+
+    // 已有的 shard 目录，按编号排序；单一索引时返回空列表
+    public static List<Path> shardDirs(String indexDir) throws IOException {
+        Path root = Paths.get(indexDir);
+        if (!Files.isDirectory(root)) {
+            return Collections.emptyList();
+        }
+        List<Path> shards = new ArrayList<>();
+        try (Stream<Path> children = Files.list(root)) {
+            children.filter(Files::isDirectory)
+                    .filter(path -> SHARD_NAME.matcher(path.getFileName().toString()).matches())
+                    .forEach(shards::add);
+        }
+        shards.sort(Comparator.comparingInt(path -> Integer.parseInt(path.getFileName().toString().substring(SHARD_PREFIX.length()))));
+        return shards;
+    }
+
+    // 文档路由：按 id 的哈希取模，同一文档总是写入同一个 shard
+    public static int shardOf(String id, int shards) {
+        return Math.floorMod(id.hashCode(), shards);
+    }
+
+    // 打开整个索引的读取器；多 shard 布局时组合所有 shard
+    public static IndexReader openReader(String indexDir) throws IOException {
+        List<Path> shards = shardDirs(indexDir);
+        if (shards.isEmpty()) {
+            return DirectoryReader.open(FSDirectory.open(Paths.get(indexDir)));
+        }
+        IndexReader[] readers = new IndexReader[shards.size()];
+        try {
+            for (int i = 0; i < readers.length; i++) {
+                readers[i] = DirectoryReader.open(FSDirectory.open(shards.get(i)));
+            }
+        } catch (IOException e) {
+            IOUtils.closeWhileHandlingException(readers);
+            throw e;
+        }
+        return new MultiReader(readers);
+    }
+
     // 主函数，运行索引器
+    // 用法：LuceneIndexer [--full] [--threads N] [--queue-size N] [--ram-buffer-mb MB] [--merge-threads N] [--parser stax|dom]
+    //       [--shards K] [--shard N] [--blue-green [--min-doc-ratio R] [--smoke-queries FILE]]
     public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        if (options.verifyParser) {
+            System.exit(verifyParser(options.xmlDir) ? 0 : 1);
+        }
+        if (options.blueGreen) {
+            rebuildBlueGreen(options);
+            return;
+        }
+        // 增量更新写入当前生效的索引目录
+        options.indexDir = IndexPointer.resolve(options.indexDir);
+        sync(options);
+    }
+
+    // 对比流式解析器与 DOM 解析器：对目录中每个 XML 文件分别抽取 TEIRecord，逐字段比较，输出不一致的字段及首个不同的位置
+    static boolean verifyParser(String xmlDir) {
+        File[] xmlFiles = new File(xmlDir).listFiles((dir, name) -> name.endsWith(".xml"));
+        if (xmlFiles == null || xmlFiles.length == 0) {
+            System.err.println("No XML files found in " + xmlDir);
+            return false;
+        }
+        Arrays.sort(xmlFiles);
+        int mismatched = 0;
+        int failed = 0;
+        for (File file : xmlFiles) {
+            TEIRecord stax;
+            TEIRecord dom;
+            try {
+                stax = TEIStreamParser.parse(file);
+                dom = XMLParser.extractTEI(file);
+            } catch (Exception e) {
+                System.err.println(file.getName() + ": error parsing: " + e.getMessage());
+                failed++;
+                continue;
+            }
+            List<String> differences = new ArrayList<>();
+            compareField(differences, "title", stax.getTitle(), dom.getTitle());
+            compareField(differences, "authors", stax.getAuthors(), dom.getAuthors());
+            compareField(differences, "affiliation", stax.getAffiliation(), dom.getAffiliation());
+            compareField(differences, "address", stax.getAddress(), dom.getAddress());
+            compareField(differences, "date", stax.getDate(), dom.getDate());
+            compareField(differences, "dateWhen", stax.getDateWhen(), dom.getDateWhen());
+            compareField(differences, "fulltext", stax.getFulltext(), dom.getFulltext());
+            compareField(differences, "referenceTitles", String.valueOf(stax.getReferenceTitles()),
+                    String.valueOf(dom.getReferenceTitles()));
+            if (!differences.isEmpty()) {
+                mismatched++;
+                System.out.println(file.getName() + ": " + String.join("; ", differences));
+            }
+        }
+        System.out.printf("Verified %d files: %d identical, %d mismatched, %d failed%n",
+                xmlFiles.length, xmlFiles.length - mismatched - failed, mismatched, failed);
+        return mismatched == 0 && failed == 0;
+    }
+
+    private static void compareField(List<String> differences, String name, String stax, String dom) {
+        if (Objects.equals(stax, dom)) {
+            return;
+        }
+        if (stax == null || dom == null) {
+            differences.add(name + " stax=" + stax + " dom=" + dom);
+            return;
+        }
+        int i = 0;
+        while (i < stax.length() && i < dom.length() && stax.charAt(i) == dom.charAt(i)) {
+            i++;
+        }
+        differences.add(String.format("%s differs at %d: stax=\"%s\" dom=\"%s\"", name, i,
+                excerpt(stax, i), excerpt(dom, i)));
+    }
+
+    private static String excerpt(String value, int at) {
+        return value.substring(Math.max(0, at - 20), Math.min(value.length(), at + 40));
+    }
+
+    private static void sync(Options options) throws Exception {
+        List<Path> existingShards = shardDirs(options.indexDir);
+        // 未指定 --shards 时保持已有布局
+        int shards = options.shards > 0 ? options.shards : Math.max(1, existingShards.size());
+        // 运行中的检索服务只会重新打开原有布局的读取器，原地改变 shard 数会使它继续读取旧数据或刷新失败，
+        // 只有空目录可以直接按新布局构建，已有索引需要用 --blue-green 在旁路目录中重建并切换
+        int existing = existingShards.isEmpty() ? (hasCommit(options.indexDir) ? 1 : 0) : existingShards.size();
+        if (existing > 0 && existing != shards) {
+            throw new IllegalArgumentException("Shard count of " + options.indexDir + " is " + existing + ", use --blue-green to rebuild with "
+                    + shards + " shards");
+        }
+        if (shards > 1 || !existingShards.isEmpty()) {
+            syncShards(options, shards, existingShards);
+            return;
+        }
         // 创建 Lucene 索引器对象，指定索引目录
-        LuceneIndexer indexer = new LuceneIndexer("index");
+        LuceneIndexer indexer = new LuceneIndexer(options.indexDir, options.ramBufferMB, options.mergeThreads, options.full);
+        indexer.setUseDomParser(options.parser.equals("dom"));
         // 获取 XML 文件目录
-        File xmlDir = new File("oriXMLs");
+        File xmlDir = new File(options.xmlDir);
         File[] xmlFiles = xmlDir.listFiles((dir, name) -> name.endsWith(".xml"));
         if (xmlFiles != null) {
-            // 遍历所有 XML 文件并索引其内容
-            for (File file : xmlFiles) {
-                System.out.println("Indexing file: " + file.getName());
-                indexer.indexXML(file);
-            }
+            // 由多个解析线程并发索引新增或修改的 XML 文件，并删除已移除的文件
+            indexer.sync(xmlFiles, options.threads, options.queueSize);
+            // 重建输入提示索引，检索服务会自动加载新版本
+            indexer.buildSuggesters();
         } else {
             System.out.println("No XML files found in oriXMLs directory.");
         }
         // 关闭索引器
         indexer.close();
     }
-}
 
+    // 多 shard 索引：按 id 把 XML 文件路由到各 shard，每个 shard 由独立的 LuceneIndexer 并行同步，
+    // 指定 --shard 时只同步该 shard。shard 数与已有布局一致（或目录为空）由 sync 保证。最后根据所有 shard 重建输入提示索引。
+    private static void syncShards(Options options, int shards, List<Path> existingShards) throws Exception {
+        if (existingShards.size() != shards && options.shard >= 0) {
+            throw new IllegalArgumentException("Index has " + existingShards.size() + " shards, build all " + shards
+                    + " shards before using --shard " + options.shard);
+        }
+        if (options.shard >= shards) {
+            throw new IllegalArgumentException("--shard " + options.shard + " out of range for " + shards + " shards");
+        }
+        File[] xmlFiles = new File(options.xmlDir).listFiles((dir, name) -> name.endsWith(".xml"));
+        if (xmlFiles == null) {
+            System.out.println("No XML files found in oriXMLs directory.");
+            return;
+        }
+        List<List<File>> routed = new ArrayList<>();
+        for (int i = 0; i < shards; i++) {
+            routed.add(new ArrayList<>());
+        }
+        for (File file : xmlFiles) {
+            routed.get(shardOf(docId(file), shards)).add(file);
+        }
+
+        // 解析线程和 RAM 缓冲区在同时构建的 shard 之间平分
+        List<Integer> targets = new ArrayList<>();
+        for (int i = 0; i < shards; i++) {
+            if (options.shard < 0 || options.shard == i) {
+                targets.add(i);
+            }
+        }
+        int threads = Math.max(1, options.threads / targets.size());
+        double ramBufferMB = options.ramBufferMB / targets.size();
+        boolean rebuild = options.full;
+        ExecutorService executor = Executors.newFixedThreadPool(targets.size());
+        List<Future<?>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int shard : targets) {
+            futures.add(executor.submit(() -> {
+                LuceneIndexer indexer = new LuceneIndexer(shardDir(options.indexDir, shard), ramBufferMB, options.mergeThreads, rebuild);
+                try {
+                    indexer.setUseDomParser(options.parser.equals("dom"));
+                    indexer.sync(routed.get(shard).toArray(new File[0]), threads, options.queueSize);
+                } finally {
+                    indexer.close();
+                }
+                System.out.println("Shard " + shard + " synced (" + routed.get(shard).size() + " files)");
+                return null;
+            }));
+        }
+        executor.shutdown();
+        // 等待所有 shard 结束后再报告第一个失败，其余 shard 的结果仍然提交
+        ExecutionException failure = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        System.out.printf("Synced %d of %d shards in %.1f s%n", targets.size(), shards, (System.nanoTime() - start) / 1e9);
+
+        try (IndexReader reader = openReader(options.indexDir)) {
+            SuggestIndexBuilder.build(reader, options.indexDir);
+        }
+    }
+
+    // 蓝绿重建：在旁路目录中全量重建（沿用当前的 shard 数），验证通过后改写索引指针，检索服务随后切换到新目录；
+    // 验证失败时删除旁路目录，当前索引不受影响
+    private static void rebuildBlueGreen(Options options) throws Exception {
+        String baseDir = options.indexDir;
+        String activeDir = IndexPointer.resolve(baseDir);
+        String sideDir = IndexPointer.newVersionDir(baseDir);
+        if (options.shards == 0) {
+            options.shards = Math.max(1, shardDirs(activeDir).size());
+        }
+        options.indexDir = sideDir;
+        options.full = true;
+        System.out.println("Rebuilding into " + sideDir + " (active index: " + activeDir + ")");
+        File[] xmlFiles = new File(options.xmlDir).listFiles((dir, name) -> name.endsWith(".xml"));
+        try {
+            sync(options);
+            validate(sideDir, xmlFiles == null ? 0 : xmlFiles.length, options.minDocRatio, options.smokeQueries);
+        } catch (Exception e) {
+            System.err.println("Rebuild failed, keeping " + activeDir + ": " + e.getMessage());
+            IndexPointer.delete(sideDir);
+            throw e;
+        }
+        IndexPointer.write(baseDir, sideDir);
+        System.out.println("Index pointer " + IndexPointer.pointerFile(baseDir) + " now points to " + sideDir);
+    }
 
-// 自定义分析器，使用标准分词器并添加 PorterStemFilter 进行词干化处理,添加停用词过滤器
-class PorterStemAnalyzer extends Analyzer {
-    @Override
-    protected TokenStreamComponents createComponents(String fieldName) {
-        // 使用标准分词器
-        Tokenizer source = new StandardTokenizer();
-        // 使用小写过滤器
-        TokenStream filter = new LowerCaseFilter(source);
-        // 添加停用词过滤器
-        filter = new StopFilter(filter, EnglishAnalyzer.getDefaultStopSet());
-        // 使用 PorterStemFilter 进行词干化
-        filter = new PorterStemFilter(filter);
-        return new TokenStreamComponents(source, filter);
+    // 验证新索引：文档数不少于 XML 文件数的 minDocRatio，且每个冒烟查询都有命中。
+    // 没有提供冒烟查询时，抽取若干篇文档，用各自的标题检索，要求该文档出现在前 10 条结果中
+    static void validate(String indexDir, int xmlFileCount, double minDocRatio, String smokeQueries) throws Exception {
+        try (IndexReader reader = openReader(indexDir)) {
+            int numDocs = reader.numDocs();
+            long minDocs = Math.max(1, (long) Math.ceil(xmlFileCount * minDocRatio));
+            if (numDocs < minDocs) {
+                throw new IllegalStateException("Index has " + numDocs + " docs, expected at least " + minDocs
+                        + " for " + xmlFileCount + " XML files");
+            }
+            IndexSearcher searcher = new IndexSearcher(reader);
+            Analyzer analyzer = new PorterStemAnalyzer();
+            int checked = 0;
+            if (smokeQueries != null) {
+                for (SearchRequest request : QueryLog.read(Paths.get(smokeQueries), Integer.MAX_VALUE)) {
+                    Query query = "all".equals(request.getField())
+                            ? new MultiFieldQueryParser(SMOKE_ALL_FIELDS, analyzer).parse(request.getQuery())
+                            : new QueryParser(request.getField(), analyzer).parse(request.getQuery());
+                    if (searcher.count(query) == 0) {
+                        throw new IllegalStateException("Smoke query has no hits: " + request.getField() + ":" + request.getQuery());
+                    }
+                    checked++;
+                }
+            } else {
+                StoredFields storedFields = searcher.storedFields();
+                int step = Math.max(1, reader.maxDoc() / SMOKE_SAMPLE_DOCS);
+                Bits liveDocs = MultiBits.getLiveDocs(reader);
+                for (int doc = 0; doc < reader.maxDoc() && checked < SMOKE_SAMPLE_DOCS; doc += step) {
+                    String title = liveDocs == null || liveDocs.get(doc) ? storedFields.document(doc).get("title") : null;
+                    if (title == null || title.trim().isEmpty()) {
+                        continue;
+                    }
+                    Query query = new QueryParser("title", analyzer).parse(QueryParser.escape(title));
+                    boolean found = false;
+                    for (ScoreDoc hit : searcher.search(query, 10).scoreDocs) {
+                        found |= hit.doc == doc;
+                    }
+                    if (!found) {
+                        throw new IllegalStateException("Smoke query did not find doc " + storedFields.document(doc).get(ID_FIELD)
+                                + " by its title");
+                    }
+                    checked++;
+                }
+            }
+            System.out.println("Validated " + indexDir + ": " + numDocs + " docs, " + checked + " smoke queries");
+        }
+    }
+
+    public static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    // 命令行参数
+    static class Options {
+        String indexDir = "index";
+        String xmlDir = "oriXMLs";
+        int threads = Runtime.getRuntime().availableProcessors();
+        int queueSize = 256;
+        double ramBufferMB = 256;
+        int mergeThreads = ConcurrentMergeScheduler.AUTO_DETECT_MERGES_AND_THREADS;
+        String parser = "stax";
+        boolean full;
+        // shard 数，0 表示保持已有布局（没有 shard 目录时为单一索引）
+        int shards;
+        // 只同步指定的 shard，-1 表示全部
+        int shard = -1;
+        // 蓝绿重建：写入旁路目录，验证后切换索引指针
+        boolean blueGreen;
+        double minDocRatio = 0.95;
+        String smokeQueries;
+        // 只对比两种 TEI 解析器的输出，不写索引
+        boolean verifyParser;
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                switch (arg) {
+                    case "--full":
+                        options.full = true;
+                        break;
+                    case "--index-dir":
+                        options.indexDir = args[++i];
+                        break;
+                    case "--xml-dir":
+                        options.xmlDir = args[++i];
+                        break;
+                    case "--threads":
+                        options.threads = Math.max(1, Integer.parseInt(args[++i]));
+                        break;
+                    case "--queue-size":
+                        options.queueSize = Math.max(1, Integer.parseInt(args[++i]));
+                        break;
+                    case "--ram-buffer-mb":
+                        options.ramBufferMB = Double.parseDouble(args[++i]);
+                        break;
+                    case "--merge-threads":
+                        options.mergeThreads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--shards":
+                        options.shards = Math.max(1, Integer.parseInt(args[++i]));
+                        break;
+                    case "--shard":
+                        options.shard = Integer.parseInt(args[++i]);
+                        break;
+                    case "--blue-green":
+                        options.blueGreen = true;
+                        break;
+                    case "--min-doc-ratio":
+                        options.minDocRatio = Double.parseDouble(args[++i]);
+                        break;
+                    case "--smoke-queries":
+                        options.smokeQueries = args[++i];
+                        break;
+                    case "--verify-parser":
+                        options.verifyParser = true;
+                        break;
+                    case "--parser":
+                        options.parser = args[++i];
+                        if (!options.parser.equals("stax") && !options.parser.equals("dom")) {
+                            throw new IllegalArgumentException("Unknown parser: " + options.parser);
+                        }
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown argument: " + arg);
+                }
+            }
+            return options;
+        }
     }
 }
 
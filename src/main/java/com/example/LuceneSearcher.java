@@ -1,20 +1,16 @@
 package com.example;
 
-import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import com.example.service.SearchHighlighter;
+import com.example.service.SpellSuggester;
 import org.apache.lucene.index.*;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.classic.QueryParser;
 import org.apache.lucene.search.*;
-import org.apache.lucene.analysis.TokenStream;
-import org.apache.lucene.search.highlight.*;
 import org.apache.lucene.store.*;
 import org.apache.lucene.document.Document;
-import org.apache.lucene.search.spell.*;
 
 import java.io.IOException;
 import java.nio.file.Paths;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Scanner;
 
 public class LuceneSearcher {
@@ -22,7 +18,7 @@ public class LuceneSearcher {
     private IndexSearcher searcher;
     private PorterStemAnalyzer analyzer;
     private IndexReader reader;
-    private Map<String, SpellChecker> spellCheckers;
+    private SpellSuggester spellSuggester;
 
     public LuceneSearcher(String indexDir) throws IOException {
         try {
@@ -32,34 +28,19 @@ public class LuceneSearcher {
             searcher = new IndexSearcher(reader);
             analyzer = new PorterStemAnalyzer();
 
-            // 构建每个字段独立的拼写检查器
-            spellCheckers = new HashMap<>();
-            String[] fields = {"title", "authors", "affiliation", "address", "fulltext", "date"};
-
-            for (String field : fields) {
-                Directory spellIndexDir = FSDirectory.open(Paths.get(indexDir + "_" + field + "_spell"));
-                SpellChecker spellChecker = new SpellChecker(spellIndexDir);
-                spellChecker.indexDictionary(new LuceneDictionary(reader, field), new IndexWriterConfig(new StandardAnalyzer()), true);
-                spellCheckers.put(field, spellChecker);
-            }
+            // 拼写建议直接读取主索引，不再在每次启动时重建侧索引
+            spellSuggester = new SpellSuggester(SpellSuggester.Mode.DIRECT, indexDir, reader);
         } catch (IOException e) {
             System.err.println("Error initializing LuceneSearcher: " + e.getMessage());
             throw e;
         }
     }
 
-    public void search(String field, String queryStr) throws InvalidTokenOffsetsException {
+    public void search(String field, String queryStr) {
         try {
             // 执行初次查询
             QueryParser parser = new QueryParser(field, analyzer);
             Query query = parser.parse(queryStr);
-            // 创建高亮器
-            SimpleHTMLFormatter formatter = new SimpleHTMLFormatter("<span style=\"background-color:yellow;\">", "</span>");
-            QueryScorer scorer = new QueryScorer(query);
-            Highlighter highlighter = new Highlighter(formatter, scorer);
-            // 添加 Fragmenter 设置
-            Fragmenter fragmenter = new SimpleFragmenter(150); // 设置片段长度为 150 个字符
-            highlighter.setTextFragmenter(fragmenter);
 
             TopDocs results = searcher.search(query, 10);
 
@@ -67,43 +48,40 @@ public class LuceneSearcher {
             if (results.totalHits.value == 0) {
                 System.out.println("No results found for: " + queryStr);
 
-                // 使用对应字段的拼写检查器给出建议
-                SpellChecker spellChecker = spellCheckers.get(field);
-                if (spellChecker != null) {
-                    String[] suggestions = spellChecker.suggestSimilar(queryStr, 10);
-                    if (suggestions.length > 0) {
-                        System.out.println("Did you mean: ");
-                        for (int i = 0; i < suggestions.length; i++) {
-                            System.out.println((i + 1) + ". " + suggestions[i]);
-                        }
-                        System.out.print("Enter the number of the suggestion to use it, or 0 to keep your original query: ");
-                        Scanner scanner = new Scanner(System.in);
-                        int choice = scanner.nextInt();
-                        scanner.nextLine(); // Consume the newline
-
-                        if (choice > 0 && choice <= suggestions.length) {
-                            // 使用建议的查询词重新执行查询
-                            queryStr = suggestions[choice - 1];
-                            query = parser.parse(queryStr);
-                            search(field, queryStr);
-                        }
+                // 使用对应字段的词典给出建议
+                String[] suggestions = spellSuggester.suggest(reader, field, queryStr, 10);
+                if (suggestions.length > 0) {
+                    System.out.println("Did you mean: ");
+                    for (int i = 0; i < suggestions.length; i++) {
+                        System.out.println((i + 1) + ". " + suggestions[i]);
+                    }
+                    System.out.print("Enter the number of the suggestion to use it, or 0 to keep your original query: ");
+                    Scanner scanner = new Scanner(System.in);
+                    int choice = scanner.nextInt();
+                    scanner.nextLine(); // Consume the newline
+
+                    if (choice > 0 && choice <= suggestions.length) {
+                        // 使用建议的查询词重新执行查询
+                        queryStr = suggestions[choice - 1];
+                        query = parser.parse(queryStr);
+                        search(field, queryStr);
                     }
                 }
             }
 
             // 输出最终的查询结果
             System.out.println("Total hits: " + results.totalHits.value);
-            for (ScoreDoc scoreDoc : results.scoreDocs) {
+            // 基于索引偏移量一次性获取整页命中的高亮片段
+            String[] fragments = SearchHighlighter.highlight(SearchHighlighter.Mode.UNIFIED, searcher, analyzer, field, query, results);
+            for (int i = 0; i < results.scoreDocs.length; i++) {
+                ScoreDoc scoreDoc = results.scoreDocs[i];
                 Document doc = searcher.doc(scoreDoc.doc);
 
                 // 获取需要高亮的字段内容
                 String text = doc.get(field);
 
-                // 创建 TokenStream
-                TokenStream tokenStream = TokenSources.getAnyTokenStream(reader, scoreDoc.doc, field, analyzer);
-
                 // 获取高亮片段
-                String highlightedText = highlighter.getBestFragment(tokenStream, text);
+                String highlightedText = fragments[i];
 
                 // 如果高亮结果为空，使用原始文本
                 if (highlightedText == null) {
@@ -0,0 +1,27 @@
+package com.example;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.core.StopFilter;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.analysis.en.PorterStemFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+
+// 自定义分析器，使用标准分词器并添加 PorterStemFilter 进行词干化处理,添加停用词过滤器。
+// 索引、检索和基准测试共用这一个实现，保证分析结果一致
+public class PorterStemAnalyzer extends Analyzer {
+    @Override
+    protected TokenStreamComponents createComponents(String fieldName) {
+        // 使用标准分词器
+        Tokenizer source = new StandardTokenizer();
+        // 使用小写过滤器
+        TokenStream filter = new LowerCaseFilter(source);
+        // 添加停用词过滤器
+        filter = new StopFilter(filter, EnglishAnalyzer.getDefaultStopSet());
+        // 使用 PorterStemFilter 进行词干化
+        filter = new PorterStemFilter(filter);
+        return new TokenStreamComponents(source, filter);
+    }
+}
@@ -0,0 +1,192 @@
+package com.example;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.suggest.InputIterator;
+import org.apache.lucene.search.suggest.analyzing.AnalyzingInfixSuggester;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// 输入提示（typeahead）索引构建：为标题和作者各构建一个 AnalyzingInfixSuggester 索引，
+// 保存在 <索引目录>_<字段>_suggest，检索服务启动时直接加载。
+// 权重反映热度：作者为其论文篇数；标题为 1 + 库内其他论文参考文献中引用该标题的次数。
+public class SuggestIndexBuilder {
+
+    public static final String[] FIELDS = {"title", "authors"};
+
+    // 参考文献标题（规范化后）的 DocValues 字段，用于统计库内被引次数
+    public static final String CITED_TITLES_FIELD = "citedTitles";
+
+    // 规范化标题的最大长度，超出部分截断
+    private static final int MAX_TITLE_KEY_LENGTH = 256;
+
+    public static String suggestDir(String indexDir, String field) {
+        return indexDir + "_" + field + "_suggest";
+    }
+
+    // 打开提示索引（只读使用时不会获取写锁）
+    public static AnalyzingInfixSuggester open(Directory dir) throws IOException {
+        return new AnalyzingInfixSuggester(dir, new StandardAnalyzer(), new StandardAnalyzer(),
+                AnalyzingInfixSuggester.DEFAULT_MIN_PREFIX_CHARS, true, true, true);
+    }
+
+    // 标题规范化：小写，非字母数字字符替换为空格并合并，使参考文献中的写法差异不影响匹配
+    public static String normalizeTitle(String title) {
+        String key = title.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+        return key.length() > MAX_TITLE_KEY_LENGTH ? key.substring(0, MAX_TITLE_KEY_LENGTH) : key;
+    }
+
+    // 根据主索引的读取器重建所有字段的提示索引
+    public static void build(IndexReader reader, String indexDir) throws IOException {
+        long start = System.nanoTime();
+        Map<String, Integer> citations = countCitations(reader);
+
+        // 相同文本只保留一条：标题取最大权重（重复收录的论文），作者累加篇数
+        Map<String, Long> titleWeights = new HashMap<>();
+        Map<String, BytesRef> titleIds = new HashMap<>();
+        Map<String, Long> authorWeights = new HashMap<>();
+        Set<String> fieldsToLoad = new HashSet<>(Arrays.asList(LuceneIndexer.ID_FIELD, "title", "authors"));
+        for (LeafReaderContext leaf : reader.leaves()) {
+            Bits liveDocs = leaf.reader().getLiveDocs();
+            StoredFields storedFields = leaf.reader().storedFields();
+            for (int doc = 0; doc < leaf.reader().maxDoc(); doc++) {
+                if (liveDocs != null && !liveDocs.get(doc)) {
+                    continue;
+                }
+                Document document = storedFields.document(doc, fieldsToLoad);
+                String title = document.get("title");
+                if (title != null && !title.isEmpty()) {
+                    long weight = 1 + citations.getOrDefault(normalizeTitle(title), 0);
+                    if (weight > titleWeights.getOrDefault(title, 0L)) {
+                        titleWeights.put(title, weight);
+                        titleIds.put(title, new BytesRef(document.get(LuceneIndexer.ID_FIELD)));
+                    }
+                }
+                String authors = document.get("authors");
+                if (authors != null) {
+                    for (String author : authors.split(";")) {
+                        author = author.trim();
+                        if (!author.isEmpty()) {
+                            authorWeights.merge(author, 1L, Long::sum);
+                        }
+                    }
+                }
+            }
+        }
+
+        write(suggestDir(indexDir, "title"), new WeightedInputIterator(titleWeights, titleIds));
+        write(suggestDir(indexDir, "authors"), new WeightedInputIterator(authorWeights, null));
+        System.out.printf("Built suggesters: %d titles, %d authors in %.1f s%n",
+                titleWeights.size(), authorWeights.size(), (System.nanoTime() - start) / 1e9);
+    }
+
+    // 统计每个规范化标题在库内参考文献中出现的次数（同一篇论文重复引用只计一次）
+    private static Map<String, Integer> countCitations(IndexReader reader) throws IOException {
+        Map<String, Integer> citations = new HashMap<>();
+        for (LeafReaderContext leaf : reader.leaves()) {
+            SortedSetDocValues values = leaf.reader().getSortedSetDocValues(CITED_TITLES_FIELD);
+            if (values == null) {
+                continue;
+            }
+            Bits liveDocs = leaf.reader().getLiveDocs();
+            // 先按序号累计，最后再查找对应的标题文本
+            int[] counts = new int[(int) values.getValueCount()];
+            for (int doc = values.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = values.nextDoc()) {
+                if (liveDocs != null && !liveDocs.get(doc)) {
+                    continue;
+                }
+                for (int i = 0; i < values.docValueCount(); i++) {
+                    counts[(int) values.nextOrd()]++;
+                }
+            }
+            for (int ord = 0; ord < counts.length; ord++) {
+                if (counts[ord] > 0) {
+                    citations.merge(values.lookupOrd(ord).utf8ToString(), counts[ord], Integer::sum);
+                }
+            }
+        }
+        return citations;
+    }
+
+    private static void write(String path, InputIterator entries) throws IOException {
+        try (Directory dir = FSDirectory.open(Paths.get(path));
+             AnalyzingInfixSuggester suggester = open(dir)) {
+            // build 会清空并重写整个提示索引，已打开的读取方在重新加载前仍使用旧版本
+            suggester.build(entries);
+        }
+    }
+
+    // 单独运行：根据已有索引重建提示索引
+    public static void main(String[] args) throws Exception {
+        String indexDir = args.length > 0 ? args[0] : "index";
+        try (IndexReader reader = LuceneIndexer.openReader(indexDir)) {
+            build(reader, indexDir);
+        }
+    }
+
+    // 按文本遍历 (文本, 权重, 可选载荷) 的输入
+    private static class WeightedInputIterator implements InputIterator {
+        private final Map<String, Long> weights;
+        private final Map<String, BytesRef> payloads;
+        private final Iterator<String> keys;
+        private String current;
+
+        WeightedInputIterator(Map<String, Long> weights, Map<String, BytesRef> payloads) {
+            this.weights = weights;
+            this.payloads = payloads;
+            this.keys = new ArrayList<>(weights.keySet()).iterator();
+        }
+
+        @Override
+        public BytesRef next() {
+            if (!keys.hasNext()) {
+                return null;
+            }
+            current = keys.next();
+            return new BytesRef(current);
+        }
+
+        @Override
+        public long weight() {
+            return weights.get(current);
+        }
+
+        @Override
+        public BytesRef payload() {
+            return payloads == null ? null : payloads.get(current);
+        }
+
+        @Override
+        public boolean hasPayloads() {
+            return payloads != null;
+        }
+
+        @Override
+        public Set<BytesRef> contexts() {
+            return null;
+        }
+
+        @Override
+        public boolean hasContexts() {
+            return false;
+        }
+    }
+}
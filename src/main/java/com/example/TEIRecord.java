@@ -0,0 +1,84 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// 从 Grobid TEI 文件中抽取出的各字段，缺失的字段为 null
+public class TEIRecord {
+    private String title;
+    private String authors;
+    private String affiliation;
+    private String address;
+    private String date;
+    // 日期元素的 when 属性（ISO 格式，如 2018 或 2018-03-01），没有时为 null
+    private String dateWhen;
+    private String fulltext;
+    // 参考文献列表中各条目的标题，用于统计库内被引次数
+    private List<String> referenceTitles = new ArrayList<>();
+
+    // Getters and Setters
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getAuthors() {
+        return authors;
+    }
+
+    public void setAuthors(String authors) {
+        this.authors = authors;
+    }
+
+    public String getAffiliation() {
+        return affiliation;
+    }
+
+    public void setAffiliation(String affiliation) {
+        this.affiliation = affiliation;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public void setAddress(String address) {
+        this.address = address;
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public void setDate(String date) {
+        this.date = date;
+    }
+
+    public String getDateWhen() {
+        return dateWhen;
+    }
+
+    public void setDateWhen(String dateWhen) {
+        this.dateWhen = dateWhen;
+    }
+
+    public String getFulltext() {
+        return fulltext;
+    }
+
+    public void setFulltext(String fulltext) {
+        this.fulltext = fulltext;
+    }
+
+    public List<String> getReferenceTitles() {
+        return referenceTitles;
+    }
+
+    public void setReferenceTitles(List<String> referenceTitles) {
+        this.referenceTitles = referenceTitles;
+    }
+}
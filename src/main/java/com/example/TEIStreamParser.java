@@ -0,0 +1,371 @@
+package com.example;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+// 基于 StAX 的流式 TEI 解析器：一次遍历抽取标题、作者、机构、地址、日期、全文和参考文献标题，
+// 不构建 DOM，内存占用只与抽取出的文本大小相关。
+// 抽取规则与 XMLParser.extractTEI（DOM 版本）逐字段保持一致：
+// 结构节点取祖先下第一个同名后代，叶子字段取父节点下第一个同名直接子节点。
+public class TEIStreamParser {
+
+    private static final String TEI_NS = "http://www.tei-c.org/ns/1.0";
+
+    private static final XMLInputFactory FACTORY = createFactory();
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, true);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    public static TEIRecord parse(File file) throws IOException, XMLStreamException {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            XMLStreamReader reader = FACTORY.createXMLStreamReader(in);
+            try {
+                return new TEIStreamParser().run(reader);
+            } finally {
+                reader.close();
+            }
+        }
+    }
+
+    // 当前元素深度，根元素为 1
+    private int depth;
+
+    // 结构节点所在深度，-1 表示尚未进入；*Done 表示第一个同名节点已处理完
+    private int teiHeaderDepth = -1;
+    private boolean teiHeaderDone;
+    private int fileDescDepth = -1;
+    private boolean fileDescDone;
+    private int titleStmtDepth = -1;
+    private boolean titleStmtDone;
+    private int sourceDescDepth = -1;
+    private boolean sourceDescDone;
+    private int biblStructDepth = -1;
+    private boolean biblStructDone;
+    private int analyticDepth = -1;
+    private boolean analyticDone;
+    private int monogrDepth = -1;
+    private boolean monogrDone;
+    private int imprintDepth = -1;
+    private boolean imprintDone;
+
+    // analytic 下的作者、机构和地址
+    private int authorDepth = -1;
+    private int persNameDepth = -1;
+    private boolean persNameDone;
+    private int affiliationDepth = -1;
+    private int addressDepth = -1;
+    private String forename;
+    private String surname;
+    private String orgName;
+    private String settlement;
+    private String region;
+    private String country;
+    private final StringBuilder authors = new StringBuilder();
+    private final StringBuilder affiliations = new StringBuilder();
+    private final StringBuilder addresses = new StringBuilder();
+
+    // 正在收集文本的叶子字段（同一时刻至多一个）
+    private String captureTarget;
+    private int captureDepth = -1;
+    private final StringBuilder capture = new StringBuilder();
+
+    // 全文收集，对应第一个 <text> 元素
+    private int textDepth = -1;
+    private boolean textDone;
+    private final StringBuilder fulltext = new StringBuilder();
+
+    // 全文中的参考文献：第一个 listBibl 的每个直接子节点 biblStruct 取 analytic 的标题，没有时取 monogr 的标题
+    private int listBiblDepth = -1;
+    private boolean listBiblDone;
+    private int refDepth = -1;
+    private int refPartDepth = -1;
+    private String refPart;
+    private String refAnalyticTitle;
+    private String refMonogrTitle;
+
+    private final TEIRecord record = new TEIRecord();
+
+    private TEIRecord run(XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    depth++;
+                    if (TEI_NS.equals(reader.getNamespaceURI())) {
+                        startElement(reader.getLocalName(), reader);
+                    }
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    endElement();
+                    depth--;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    characters(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    break;
+                default:
+                    break;
+            }
+        }
+        record.setAuthors(emptyToNull(authors.toString().trim()));
+        record.setAffiliation(emptyToNull(affiliations.toString().trim()));
+        record.setAddress(emptyToNull(addresses.toString().trim()));
+        return record;
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    private void startElement(String name, XMLStreamReader reader) {
+        // 第一个 <text> 元素（不含根元素）即为全文
+        if (name.equals("text") && depth > 1 && textDepth == -1 && !textDone) {
+            textDepth = depth;
+        } else if (textDepth != -1) {
+            startReferenceElement(name);
+        }
+
+        if (name.equals("teiHeader") && depth > 1 && teiHeaderDepth == -1 && !teiHeaderDone) {
+            teiHeaderDepth = depth;
+        } else if (teiHeaderDepth != -1 && name.equals("fileDesc") && fileDescDepth == -1 && !fileDescDone) {
+            fileDescDepth = depth;
+        } else if (fileDescDepth != -1 && name.equals("titleStmt") && titleStmtDepth == -1 && !titleStmtDone) {
+            titleStmtDepth = depth;
+        } else if (fileDescDepth != -1 && name.equals("sourceDesc") && sourceDescDepth == -1 && !sourceDescDone) {
+            sourceDescDepth = depth;
+        } else if (sourceDescDepth != -1 && name.equals("biblStruct") && biblStructDepth == -1 && !biblStructDone) {
+            biblStructDepth = depth;
+        } else if (biblStructDepth != -1 && name.equals("analytic") && analyticDepth == -1 && !analyticDone) {
+            analyticDepth = depth;
+        } else if (biblStructDepth != -1 && name.equals("monogr") && monogrDepth == -1 && !monogrDone) {
+            monogrDepth = depth;
+        } else if (monogrDepth != -1 && name.equals("imprint") && imprintDepth == -1 && !imprintDone) {
+            imprintDepth = depth;
+        }
+
+        // 标题：titleStmt 的第一个 <title> 直接子节点
+        if (titleStmtDepth != -1 && depth == titleStmtDepth + 1 && name.equals("title") && record.getTitle() == null) {
+            startCapture("title");
+        }
+        // 日期：imprint 的第一个 <date> 直接子节点
+        if (imprintDepth != -1 && depth == imprintDepth + 1 && name.equals("date") && record.getDate() == null) {
+            String when = reader.getAttributeValue(null, "when");
+            record.setDateWhen(when == null ? null : emptyToNull(when.trim()));
+            startCapture("date");
+        }
+
+        if (analyticDepth != -1) {
+            if (name.equals("author") && authorDepth == -1) {
+                authorDepth = depth;
+                persNameDepth = -1;
+                persNameDone = false;
+                forename = null;
+                surname = null;
+            } else if (authorDepth != -1) {
+                startAuthorElement(name);
+            }
+        }
+    }
+
+    private void startReferenceElement(String name) {
+        if (name.equals("listBibl") && listBiblDepth == -1 && !listBiblDone) {
+            listBiblDepth = depth;
+        } else if (listBiblDepth != -1 && depth == listBiblDepth + 1 && name.equals("biblStruct")) {
+            refDepth = depth;
+            refAnalyticTitle = null;
+            refMonogrTitle = null;
+        } else if (refDepth != -1 && depth == refDepth + 1 && (name.equals("analytic") || name.equals("monogr"))) {
+            refPartDepth = depth;
+            refPart = name;
+        } else if (refPartDepth != -1 && depth == refPartDepth + 1 && name.equals("title")) {
+            if (refPart.equals("analytic") && refAnalyticTitle == null) {
+                startCapture("refAnalyticTitle");
+            } else if (refPart.equals("monogr") && refMonogrTitle == null) {
+                startCapture("refMonogrTitle");
+            }
+        }
+    }
+
+    private void startAuthorElement(String name) {
+        if (name.equals("persName") && persNameDepth == -1 && !persNameDone) {
+            persNameDepth = depth;
+        } else if (persNameDepth != -1 && depth == persNameDepth + 1) {
+            if (name.equals("forename") && forename == null) {
+                startCapture("forename");
+            } else if (name.equals("surname") && surname == null) {
+                startCapture("surname");
+            }
+        }
+
+        if (name.equals("affiliation") && affiliationDepth == -1) {
+            affiliationDepth = depth;
+            orgName = null;
+        } else if (affiliationDepth != -1) {
+            if (depth == affiliationDepth + 1 && name.equals("orgName") && orgName == null) {
+                startCapture("orgName");
+            }
+            if (name.equals("address") && addressDepth == -1) {
+                addressDepth = depth;
+                settlement = null;
+                region = null;
+                country = null;
+            } else if (addressDepth != -1 && depth == addressDepth + 1) {
+                if (name.equals("settlement") && settlement == null) {
+                    startCapture("settlement");
+                } else if (name.equals("region") && region == null) {
+                    startCapture("region");
+                } else if (name.equals("country") && country == null) {
+                    startCapture("country");
+                }
+            }
+        }
+    }
+
+    private void startCapture(String target) {
+        if (captureDepth == -1) {
+            captureTarget = target;
+            captureDepth = depth;
+            capture.setLength(0);
+        }
+    }
+
+    private void characters(char[] text, int start, int length) {
+        if (captureDepth != -1) {
+            capture.append(text, start, length);
+        }
+        if (textDepth != -1) {
+            fulltext.append(text, start, length);
+        }
+    }
+
+    private void endElement() {
+        if (depth == captureDepth) {
+            finishCapture(capture.toString().trim());
+            captureDepth = -1;
+        }
+        if (depth == textDepth) {
+            record.setFulltext(fulltext.toString().trim());
+            fulltext.setLength(0);
+            textDepth = -1;
+            textDone = true;
+        }
+
+        if (depth == refPartDepth) {
+            refPartDepth = -1;
+        } else if (depth == refDepth) {
+            String title = refAnalyticTitle != null ? refAnalyticTitle : refMonogrTitle;
+            if (title != null && !title.isEmpty()) {
+                record.getReferenceTitles().add(title);
+            }
+            refDepth = -1;
+        } else if (depth == listBiblDepth) {
+            listBiblDepth = -1;
+            listBiblDone = true;
+        }
+
+        if (depth == addressDepth) {
+            StringBuilder address = new StringBuilder();
+            if (settlement != null) {
+                address.append(settlement).append(", ");
+            }
+            if (region != null) {
+                address.append(region).append(", ");
+            }
+            if (country != null) {
+                address.append(country);
+            }
+            addresses.append(address.toString().trim()).append("; ");
+            addressDepth = -1;
+        } else if (depth == affiliationDepth) {
+            if (orgName != null) {
+                affiliations.append(orgName).append("; ");
+            }
+            affiliationDepth = -1;
+        } else if (depth == persNameDepth) {
+            persNameDepth = -1;
+            persNameDone = true;
+        } else if (depth == authorDepth) {
+            if (forename != null && surname != null) {
+                authors.append(forename).append(" ").append(surname).append("; ");
+            } else if (surname != null) {
+                authors.append(surname).append("; ");
+            }
+            authorDepth = -1;
+        }
+
+        if (depth == imprintDepth) {
+            imprintDepth = -1;
+            imprintDone = true;
+        } else if (depth == monogrDepth) {
+            monogrDepth = -1;
+            monogrDone = true;
+        } else if (depth == analyticDepth) {
+            analyticDepth = -1;
+            analyticDone = true;
+        } else if (depth == biblStructDepth) {
+            biblStructDepth = -1;
+            biblStructDone = true;
+        } else if (depth == sourceDescDepth) {
+            sourceDescDepth = -1;
+            sourceDescDone = true;
+        } else if (depth == titleStmtDepth) {
+            titleStmtDepth = -1;
+            titleStmtDone = true;
+        } else if (depth == fileDescDepth) {
+            fileDescDepth = -1;
+            fileDescDone = true;
+        } else if (depth == teiHeaderDepth) {
+            teiHeaderDepth = -1;
+            teiHeaderDone = true;
+        }
+    }
+
+    private void finishCapture(String text) {
+        switch (captureTarget) {
+            case "title":
+                record.setTitle(text);
+                break;
+            case "date":
+                record.setDate(text);
+                break;
+            case "forename":
+                forename = text;
+                break;
+            case "surname":
+                surname = text;
+                break;
+            case "orgName":
+                orgName = text;
+                break;
+            case "settlement":
+                settlement = text;
+                break;
+            case "region":
+                region = text;
+                break;
+            case "country":
+                country = text;
+                break;
+            case "refAnalyticTitle":
+                refAnalyticTitle = text;
+                break;
+            case "refMonogrTitle":
+                refMonogrTitle = text;
+                break;
+            default:
+                break;
+        }
+    }
+}
@@ -42,12 +42,29 @@
 
 package com.example;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
 import javax.xml.parsers.*;
 import org.w3c.dom.*;
 
 public class XMLParser {
 
+    // Grobid 正常输出的 XML 头部，与 check_xml_headers.sh 的检查一致
+    public static final String EXPECTED_HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>";
+
+    // 检查文件第一行是否为期望的 XML 头部，Grobid 出错时输出的纯文本错误信息无法通过该检查
+    public static boolean hasExpectedHeader(File file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            return EXPECTED_HEADER.equals(header);
+        }
+    }
+
     public static Document parseXML(File file) throws Exception {
         DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
         factory.setNamespaceAware(true); // 处理命名空间
@@ -55,6 +72,214 @@ public class XMLParser {
         return builder.parse(file);
     }
 
+    // 基于 DOM 抽取 TEI 各字段（原有实现，保留用于与 TEIStreamParser 对比）
+    public static TEIRecord extractTEI(File file) throws Exception {
+        // 解析 XML 文件
+        Document xmlDocument = parseXML(file);
+        Element root = xmlDocument.getDocumentElement();
+
+        // 定义命名空间 URI
+        String namespaceURI = "http://www.tei-c.org/ns/1.0";
+
+        // 创建抽取结果对象
+        TEIRecord record = new TEIRecord();
+
+        // 定位到 teiHeader 节点
+        NodeList teiHeaderList = root.getElementsByTagNameNS(namespaceURI, "teiHeader");
+        if (teiHeaderList.getLength() > 0) {
+            Element teiHeader = (Element) teiHeaderList.item(0);
+
+            // 定位到 fileDesc 节点
+            NodeList fileDescList = teiHeader.getElementsByTagNameNS(namespaceURI, "fileDesc");
+            if (fileDescList.getLength() > 0) {
+                Element fileDesc = (Element) fileDescList.item(0);
+
+                // 定位到 titleStmt 节点
+                NodeList titleStmtList = fileDesc.getElementsByTagNameNS(namespaceURI, "titleStmt");
+                if (titleStmtList.getLength() > 0) {
+                    Element titleStmt = (Element) titleStmtList.item(0);
+
+                    // 获取标题
+                    String title = getTextFromTag(titleStmt, namespaceURI, "title");
+                    if (title != null) {
+                        record.setTitle(title);
+                    }
+                }
+
+                // 定位到 sourceDesc 节点
+                NodeList sourceDescList = fileDesc.getElementsByTagNameNS(namespaceURI, "sourceDesc");
+                if (sourceDescList.getLength() > 0) {
+                    Element sourceDesc = (Element) sourceDescList.item(0);
+
+                    // 定位到 biblStruct 节点
+                    NodeList biblStructList = sourceDesc.getElementsByTagNameNS(namespaceURI, "biblStruct");
+                    if (biblStructList.getLength() > 0) {
+                        Element biblStruct = (Element) biblStructList.item(0);
+
+                        // 定位到 analytic 节点
+                        NodeList analyticList = biblStruct.getElementsByTagNameNS(namespaceURI, "analytic");
+                        if (analyticList.getLength() > 0) {
+                            Element analytic = (Element) analyticList.item(0);
+
+                            // 获取作者信息
+                            String authors = getAuthors(analytic, namespaceURI);
+                            if (authors != null && !authors.isEmpty()) {
+                                record.setAuthors(authors);
+                            }
+
+                            // 获取机构信息
+                            String affiliation = getAffiliation(analytic, namespaceURI);
+                            if (affiliation != null && !affiliation.isEmpty()) {
+                                record.setAffiliation(affiliation);
+                            }
+
+                            // 获取地址信息
+                            String address = getAddress(analytic, namespaceURI);
+                            if (address != null && !address.isEmpty()) {
+                                record.setAddress(address);
+                            }
+                        }
+
+                        // 定位到 monogr 节点
+                        NodeList monogrList = biblStruct.getElementsByTagNameNS(namespaceURI, "monogr");
+                        if (monogrList.getLength() > 0) {
+                            Element monogr = (Element) monogrList.item(0);
+
+                            // 定位到 imprint 节点
+                            NodeList imprintList = monogr.getElementsByTagNameNS(namespaceURI, "imprint");
+                            if (imprintList.getLength() > 0) {
+                                Element imprint = (Element) imprintList.item(0);
+
+                                // 获取日期及其 when 属性
+                                String date = getTextFromTag(imprint, namespaceURI, "date");
+                                if (date != null) {
+                                    record.setDate(date);
+                                    String when = getChildElement(imprint, namespaceURI, "date").getAttribute("when").trim();
+                                    record.setDateWhen(when.isEmpty() ? null : when);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        // 获取全文内容（假设在 <text> 元素中）
+        record.setFulltext(getFullText(root, namespaceURI));
+        record.setReferenceTitles(getReferenceTitles(root, namespaceURI));
+        return record;
+    }
+
+    // 获取机构信息
+    private static String getAffiliation(Element analytic, String namespaceURI) {
+        StringBuilder affiliations = new StringBuilder();
+        // 获取 author 节点列表
+        NodeList authorList = analytic.getElementsByTagNameNS(namespaceURI, "author");
+        for (int i = 0; i < authorList.getLength(); i++) {
+            Element authorElement = (Element) authorList.item(i);
+            // 获取 affiliation 节点列表
+            NodeList affiliationList = authorElement.getElementsByTagNameNS(namespaceURI, "affiliation");
+            for (int j = 0; j < affiliationList.getLength(); j++) {
+                Element affiliationElement = (Element) affiliationList.item(j);
+                // 获取机构名称并添加到结果字符串中
+                String orgName = getTextFromTag(affiliationElement, namespaceURI, "orgName");
+                if (orgName != null) {
+                    affiliations.append(orgName).append("; ");
+                }
+            }
+        }
+        return affiliations.toString().trim();
+    }
+
+    // 获取地址信息
+    private static String getAddress(Element analytic, String namespaceURI) {
+        StringBuilder addresses = new StringBuilder();
+        // 获取 author 节点列表
+        NodeList authorList = analytic.getElementsByTagNameNS(namespaceURI, "author");
+        for (int i = 0; i < authorList.getLength(); i++) {
+            Element authorElement = (Element) authorList.item(i);
+            // 获取 affiliation 节点列表
+            NodeList affiliationList = authorElement.getElementsByTagNameNS(namespaceURI, "affiliation");
+            for (int j = 0; j < affiliationList.getLength(); j++) {
+                Element affiliationElement = (Element) affiliationList.item(j);
+                // 获取 address 节点列表
+                NodeList addressList = affiliationElement.getElementsByTagNameNS(namespaceURI, "address");
+                for (int k = 0; k < addressList.getLength(); k++) {
+                    Element addressElement = (Element) addressList.item(k);
+                    // 获取地址的各个部分并添加到结果字符串中
+                    String settlement = getTextFromTag(addressElement, namespaceURI, "settlement");
+                    String region = getTextFromTag(addressElement, namespaceURI, "region");
+                    String country = getTextFromTag(addressElement, namespaceURI, "country");
+                    StringBuilder address = new StringBuilder();
+                    if (settlement != null) {
+                        address.append(settlement).append(", ");
+                    }
+                    if (region != null) {
+                        address.append(region).append(", ");
+                    }
+                    if (country != null) {
+                        address.append(country);
+                    }
+                    addresses.append(address.toString().trim()).append("; ");
+                }
+            }
+        }
+        return addresses.toString().trim();
+    }
+
+    // 获取全文内容
+    private static String getFullText(Element root, String namespaceURI) {
+        // 获取 text 节点列表
+        NodeList textList = root.getElementsByTagNameNS(namespaceURI, "text");
+        if (textList.getLength() > 0) {
+            Element textElement = (Element) textList.item(0);
+            // 返回全文内容
+            return textElement.getTextContent().trim();
+        }
+        return null;
+    }
+
+    // 获取参考文献标题：全文中第一个 listBibl 的每个直接子节点 biblStruct 取 analytic 的标题，没有时取 monogr 的标题
+    private static List<String> getReferenceTitles(Element root, String namespaceURI) {
+        List<String> titles = new ArrayList<>();
+        NodeList textList = root.getElementsByTagNameNS(namespaceURI, "text");
+        if (textList.getLength() == 0) {
+            return titles;
+        }
+        NodeList listBiblList = ((Element) textList.item(0)).getElementsByTagNameNS(namespaceURI, "listBibl");
+        if (listBiblList.getLength() == 0) {
+            return titles;
+        }
+        // 只取 listBibl 的直接子节点 biblStruct，relatedItem 等嵌套的 biblStruct 不算独立的参考文献
+        for (Node child = listBiblList.item(0).getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (!(child instanceof Element) || !"biblStruct".equals(child.getLocalName())
+                    || !namespaceURI.equals(child.getNamespaceURI())) {
+                continue;
+            }
+            Element biblStruct = (Element) child;
+            String title = null;
+            for (String part : new String[]{"analytic", "monogr"}) {
+                Element partElement = getChildElement(biblStruct, namespaceURI, part);
+                if (partElement != null && title == null) {
+                    title = getTextFromTag(partElement, namespaceURI, "title");
+                }
+            }
+            if (title != null && !title.isEmpty()) {
+                titles.add(title);
+            }
+        }
+        return titles;
+    }
+
+    private static Element getChildElement(Element element, String namespaceURI, String tag) {
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element && tag.equals(child.getLocalName()) && namespaceURI.equals(child.getNamespaceURI())) {
+                return (Element) child;
+            }
+        }
+        return null;
+    }
+
     public static String getTextFromTag(Element element, String namespaceURI, String tag) {
         NodeList childNodes = element.getElementsByTagNameNS(namespaceURI, tag);
         for (int i = 0; i < childNodes.getLength(); i++) {
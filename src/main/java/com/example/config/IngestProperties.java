@@ -0,0 +1,89 @@
+package com.example.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+// 在线增量索引配置，对应 application.properties 中以 ingest. 开头的配置项
+@Component
+@ConfigurationProperties(prefix = "ingest")
+public class IngestProperties {
+
+    // 是否在应用内监听 XML 目录并实时索引
+    private boolean enabled = false;
+
+    // 监听的 TEI XML 目录
+    private String xmlDir = "oriXMLs";
+
+    // 目录静默多久（毫秒）后处理积累的文件变更，用于等待 Grobid 写完文件
+    private long debounceMs = 2000;
+
+    // 单批最多处理的文件数，达到后不再等待静默
+    private int maxBatchSize = 200;
+
+    // 两次提交之间的最小间隔（毫秒），期间的修改通过近实时读取器可见
+    private long commitIntervalMs = 30000;
+
+    // 解析线程数
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    // IndexWriter RAM 缓冲区大小（MB）
+    private double ramBufferMb = 64;
+
+    // Getters and Setters
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getXmlDir() {
+        return xmlDir;
+    }
+
+    public void setXmlDir(String xmlDir) {
+        this.xmlDir = xmlDir;
+    }
+
+    public long getDebounceMs() {
+        return debounceMs;
+    }
+
+    public void setDebounceMs(long debounceMs) {
+        this.debounceMs = debounceMs;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public long getCommitIntervalMs() {
+        return commitIntervalMs;
+    }
+
+    public void setCommitIntervalMs(long commitIntervalMs) {
+        this.commitIntervalMs = commitIntervalMs;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public double getRamBufferMb() {
+        return ramBufferMb;
+    }
+
+    public void setRamBufferMb(double ramBufferMb) {
+        this.ramBufferMb = ramBufferMb;
+    }
+}
@@ -0,0 +1,455 @@
+package com.example.config;
+
+import com.example.service.SearchHighlighter;
+import com.example.service.SpellSuggester;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// 检索服务配置，对应 application.properties 中以 search. 开头的配置项
+@Component
+@ConfigurationProperties(prefix = "search")
+public class SearchProperties {
+
+    // 索引目录
+    private String indexDir = "index";
+
+    // 后台刷新索引读取器的间隔（毫秒），0 表示不自动刷新，只能通过管理接口手动刷新
+    private long refreshIntervalMs = 1000;
+
+    // 高亮方式：unified 基于索引偏移量一次处理整页命中，classic 为逐个命中重新分析的原实现
+    private SearchHighlighter.Mode highlighter = SearchHighlighter.Mode.UNIFIED;
+
+    // 拼写建议方式：direct 直接读取主索引词典，无需侧索引；index 使用启动时构建的 SpellChecker 侧索引
+    private SpellSuggester.Mode spellcheck = SpellSuggester.Mode.DIRECT;
+
+    // 后台检查输入提示索引是否已被重建的间隔（毫秒），0 表示只在启动时加载
+    private long suggestReloadIntervalMs = 30000;
+
+    // 检索结果缓存的最大条目数，0 表示不缓存
+    private int cacheMaxEntries = 1000;
+
+    // 缓存条目的存活时间（毫秒），0 表示只在读取器刷新或被淘汰时失效
+    private long cacheTtlMs = 300000;
+
+    // 分页检索单页的最大条数
+    private int maxPageSize = 100;
+
+    // 精确统计命中数的上限，超过后命中数为下界，检索可以跳过无法进入当前页的文档块
+    private int totalHitsThreshold = 1000;
+
+    // 读取器被刷新替换后，为未完成的翻页保留旧读取器的时间（秒）
+    private double cursorTtlSeconds = 600;
+
+    // field=all 时参与检索的字段及其权重，权重不大于 0 的字段不参与
+    private Map<String, Float> fieldBoosts = defaultFieldBoosts();
+
+    // field=all 时各字段得分的组合方式：0 只取最佳字段，1 为各字段求和
+    private float tieBreaker = 0.1f;
+
+    // 批量检索的线程数、等待队列长度和单次请求的最大条数
+    private int batchThreads = Runtime.getRuntime().availableProcessors();
+    private int batchQueueSize = 256;
+    private int maxBatchSize = 1000;
+
+    // 检索准入控制：同时执行的检索数，0 表示不限制，每个请求在请求线程上直接检索
+    private int maxConcurrentSearches = Runtime.getRuntime().availableProcessors() * 2;
+    // 等待执行的检索数上限，排满后新请求返回 429
+    private int admissionQueueSize = 100;
+    // 在队列中的最长等待时间（毫秒），超过后移出队列并返回 503
+    private long admissionQueueTimeoutMs = 1000;
+
+    // 异步处理检索请求：检索接口把请求交给检索线程池后立即释放 Tomcat 请求线程，检索完成后再写回响应；
+    // false 时请求线程一直等待检索完成（每个进行中的请求占用一个请求线程）。需要开启准入控制（maxConcurrentSearches > 0）
+    private boolean asyncRequests = false;
+
+    // 单次检索的时限（毫秒），从收到请求时开始计算（含排队时间），超过后停止收集、高亮和拼写建议并返回部分结果，0 表示不限
+    private long searchTimeoutMs = 5000;
+
+    // 段内并行检索的线程数，0 表示不并行，每个查询在请求线程上顺序检索所有段（多 shard 索引为每个 shard 一个线程）
+    private int searchThreads = 0;
+    // 并行检索任务的等待队列长度，队列满时由请求线程自己检索
+    private int searchQueueSize = 1024;
+    // 并行检索时每个分片最多包含的文档数和段数，小段合并到同一分片
+    private int sliceMaxDocs = 250000;
+    private int sliceMaxSegments = 5;
+
+    // 查询日志文件：非空时把收到的检索请求追加到该文件（每行一个 JSON），供启动预热使用；超过 queryLogMaxBytes 后滚动，0 表示不滚动
+    private String queryLog = "";
+    private long queryLogMaxBytes = 10 * 1024 * 1024;
+
+    // 启动预热重放的日志文件，为空时使用 queryLog；两者都为空时不预热
+    private String warmupLog = "";
+
+    // 预热重放日志中最后多少个查询，以及预热的时间预算（毫秒），0 表示不预热
+    private int warmupMaxQueries = 500;
+    private long warmupTimeBudgetMs = 10000;
+
+    // 打开索引时预加载到内存的文件扩展名（逗号分隔，如 tim,tip,doc,dvd），为空时按需换入
+    private String preloadExtensions = "";
+
+    // 慢查询阈值（毫秒），耗时超过阈值的检索写入慢查询日志，0 表示关闭
+    private long slowQueryThresholdMs = 1000;
+
+    // 慢查询日志文件（每行一个 JSON），为空时只在内存中保留最近的记录；超过 slowQueryLogMaxBytes 后滚动
+    private String slowQueryLog = "";
+    private long slowQueryLogMaxBytes = 10 * 1024 * 1024;
+
+    // 内存中保留的最近慢查询条数，通过 GET /api/admin/slow-queries 查看
+    private int slowQueryRecent = 100;
+
+    // 是否为慢查询记录排名第一的命中的打分明细（额外执行一次 explain）
+    private boolean slowQueryExplain = false;
+
+    // 切换索引目录后等待进行中的查询归还旧读取器的最长时间（毫秒），之后关闭旧读取器
+    private long swapDrainTimeoutMs = 30000;
+
+    // 切换后是否删除旧的蓝绿重建旁路目录（配置的索引目录本身从不删除）
+    private boolean swapDeleteOld = true;
+
+    // 复制角色：NONE 不复制；PRIMARY 通过 /api/replication 发布提交快照；REPLICA 定时从主节点拉取并刷新
+    private ReplicationRole replicationRole = ReplicationRole.NONE;
+
+    // 副本拉取的主节点地址
+    private String replicationPrimaryUrl = "http://localhost:8083";
+
+    // 主节点保留的最近快照数
+    private int replicationKeepSnapshots = 3;
+
+    public enum ReplicationRole {
+        NONE, PRIMARY, REPLICA
+    }
+
+    private static Map<String, Float> defaultFieldBoosts() {
+        Map<String, Float> boosts = new LinkedHashMap<>();
+        boosts.put("title", 3.0f);
+        boosts.put("authors", 2.0f);
+        boosts.put("affiliation", 1.0f);
+        boosts.put("fulltext", 1.0f);
+        return boosts;
+    }
+
+    // Getters and Setters
+
+    public String getIndexDir() {
+        return indexDir;
+    }
+
+    public void setIndexDir(String indexDir) {
+        this.indexDir = indexDir;
+    }
+
+    public long getRefreshIntervalMs() {
+        return refreshIntervalMs;
+    }
+
+    public void setRefreshIntervalMs(long refreshIntervalMs) {
+        this.refreshIntervalMs = refreshIntervalMs;
+    }
+
+    public SearchHighlighter.Mode getHighlighter() {
+        return highlighter;
+    }
+
+    public void setHighlighter(SearchHighlighter.Mode highlighter) {
+        this.highlighter = highlighter;
+    }
+
+    public SpellSuggester.Mode getSpellcheck() {
+        return spellcheck;
+    }
+
+    public void setSpellcheck(SpellSuggester.Mode spellcheck) {
+        this.spellcheck = spellcheck;
+    }
+
+    public long getSuggestReloadIntervalMs() {
+        return suggestReloadIntervalMs;
+    }
+
+    public void setSuggestReloadIntervalMs(long suggestReloadIntervalMs) {
+        this.suggestReloadIntervalMs = suggestReloadIntervalMs;
+    }
+
+    public int getCacheMaxEntries() {
+        return cacheMaxEntries;
+    }
+
+    public void setCacheMaxEntries(int cacheMaxEntries) {
+        this.cacheMaxEntries = cacheMaxEntries;
+    }
+
+    public long getCacheTtlMs() {
+        return cacheTtlMs;
+    }
+
+    public void setCacheTtlMs(long cacheTtlMs) {
+        this.cacheTtlMs = cacheTtlMs;
+    }
+
+    public int getMaxPageSize() {
+        return maxPageSize;
+    }
+
+    public void setMaxPageSize(int maxPageSize) {
+        this.maxPageSize = maxPageSize;
+    }
+
+    public int getTotalHitsThreshold() {
+        return totalHitsThreshold;
+    }
+
+    public void setTotalHitsThreshold(int totalHitsThreshold) {
+        this.totalHitsThreshold = totalHitsThreshold;
+    }
+
+    public double getCursorTtlSeconds() {
+        return cursorTtlSeconds;
+    }
+
+    public void setCursorTtlSeconds(double cursorTtlSeconds) {
+        this.cursorTtlSeconds = cursorTtlSeconds;
+    }
+
+    public Map<String, Float> getFieldBoosts() {
+        return fieldBoosts;
+    }
+
+    public void setFieldBoosts(Map<String, Float> fieldBoosts) {
+        this.fieldBoosts = fieldBoosts;
+    }
+
+    public float getTieBreaker() {
+        return tieBreaker;
+    }
+
+    public void setTieBreaker(float tieBreaker) {
+        this.tieBreaker = tieBreaker;
+    }
+
+    public int getBatchThreads() {
+        return batchThreads;
+    }
+
+    public void setBatchThreads(int batchThreads) {
+        this.batchThreads = batchThreads;
+    }
+
+    public int getBatchQueueSize() {
+        return batchQueueSize;
+    }
+
+    public void setBatchQueueSize(int batchQueueSize) {
+        this.batchQueueSize = batchQueueSize;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public int getSearchThreads() {
+        return searchThreads;
+    }
+
+    public void setSearchThreads(int searchThreads) {
+        this.searchThreads = searchThreads;
+    }
+
+    public int getSearchQueueSize() {
+        return searchQueueSize;
+    }
+
+    public void setSearchQueueSize(int searchQueueSize) {
+        this.searchQueueSize = searchQueueSize;
+    }
+
+    public int getSliceMaxDocs() {
+        return sliceMaxDocs;
+    }
+
+    public void setSliceMaxDocs(int sliceMaxDocs) {
+        this.sliceMaxDocs = sliceMaxDocs;
+    }
+
+    public int getSliceMaxSegments() {
+        return sliceMaxSegments;
+    }
+
+    public void setSliceMaxSegments(int sliceMaxSegments) {
+        this.sliceMaxSegments = sliceMaxSegments;
+    }
+
+    public String getQueryLog() {
+        return queryLog;
+    }
+
+    public void setQueryLog(String queryLog) {
+        this.queryLog = queryLog;
+    }
+
+    public long getQueryLogMaxBytes() {
+        return queryLogMaxBytes;
+    }
+
+    public void setQueryLogMaxBytes(long queryLogMaxBytes) {
+        this.queryLogMaxBytes = queryLogMaxBytes;
+    }
+
+    public String getWarmupLog() {
+        return warmupLog;
+    }
+
+    public void setWarmupLog(String warmupLog) {
+        this.warmupLog = warmupLog;
+    }
+
+    public int getWarmupMaxQueries() {
+        return warmupMaxQueries;
+    }
+
+    public void setWarmupMaxQueries(int warmupMaxQueries) {
+        this.warmupMaxQueries = warmupMaxQueries;
+    }
+
+    public long getWarmupTimeBudgetMs() {
+        return warmupTimeBudgetMs;
+    }
+
+    public void setWarmupTimeBudgetMs(long warmupTimeBudgetMs) {
+        this.warmupTimeBudgetMs = warmupTimeBudgetMs;
+    }
+
+    public String getPreloadExtensions() {
+        return preloadExtensions;
+    }
+
+    public void setPreloadExtensions(String preloadExtensions) {
+        this.preloadExtensions = preloadExtensions;
+    }
+
+    public long getSlowQueryThresholdMs() {
+        return slowQueryThresholdMs;
+    }
+
+    public void setSlowQueryThresholdMs(long slowQueryThresholdMs) {
+        this.slowQueryThresholdMs = slowQueryThresholdMs;
+    }
+
+    public String getSlowQueryLog() {
+        return slowQueryLog;
+    }
+
+    public void setSlowQueryLog(String slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    public long getSlowQueryLogMaxBytes() {
+        return slowQueryLogMaxBytes;
+    }
+
+    public void setSlowQueryLogMaxBytes(long slowQueryLogMaxBytes) {
+        this.slowQueryLogMaxBytes = slowQueryLogMaxBytes;
+    }
+
+    public int getSlowQueryRecent() {
+        return slowQueryRecent;
+    }
+
+    public void setSlowQueryRecent(int slowQueryRecent) {
+        this.slowQueryRecent = slowQueryRecent;
+    }
+
+    public boolean isSlowQueryExplain() {
+        return slowQueryExplain;
+    }
+
+    public void setSlowQueryExplain(boolean slowQueryExplain) {
+        this.slowQueryExplain = slowQueryExplain;
+    }
+
+    public long getSwapDrainTimeoutMs() {
+        return swapDrainTimeoutMs;
+    }
+
+    public void setSwapDrainTimeoutMs(long swapDrainTimeoutMs) {
+        this.swapDrainTimeoutMs = swapDrainTimeoutMs;
+    }
+
+    public boolean isSwapDeleteOld() {
+        return swapDeleteOld;
+    }
+
+    public void setSwapDeleteOld(boolean swapDeleteOld) {
+        this.swapDeleteOld = swapDeleteOld;
+    }
+
+    public ReplicationRole getReplicationRole() {
+        return replicationRole;
+    }
+
+    public void setReplicationRole(ReplicationRole replicationRole) {
+        this.replicationRole = replicationRole;
+    }
+
+    public String getReplicationPrimaryUrl() {
+        return replicationPrimaryUrl;
+    }
+
+    public void setReplicationPrimaryUrl(String replicationPrimaryUrl) {
+        this.replicationPrimaryUrl = replicationPrimaryUrl;
+    }
+
+    public int getReplicationKeepSnapshots() {
+        return replicationKeepSnapshots;
+    }
+
+    public void setReplicationKeepSnapshots(int replicationKeepSnapshots) {
+        this.replicationKeepSnapshots = replicationKeepSnapshots;
+    }
+
+    public int getMaxConcurrentSearches() {
+        return maxConcurrentSearches;
+    }
+
+    public void setMaxConcurrentSearches(int maxConcurrentSearches) {
+        this.maxConcurrentSearches = maxConcurrentSearches;
+    }
+
+    public int getAdmissionQueueSize() {
+        return admissionQueueSize;
+    }
+
+    public void setAdmissionQueueSize(int admissionQueueSize) {
+        this.admissionQueueSize = admissionQueueSize;
+    }
+
+    public long getAdmissionQueueTimeoutMs() {
+        return admissionQueueTimeoutMs;
+    }
+
+    public void setAdmissionQueueTimeoutMs(long admissionQueueTimeoutMs) {
+        this.admissionQueueTimeoutMs = admissionQueueTimeoutMs;
+    }
+
+    public long getSearchTimeoutMs() {
+        return searchTimeoutMs;
+    }
+
+    public void setSearchTimeoutMs(long searchTimeoutMs) {
+        this.searchTimeoutMs = searchTimeoutMs;
+    }
+
+    public boolean isAsyncRequests() {
+        return asyncRequests;
+    }
+
+    public void setAsyncRequests(boolean asyncRequests) {
+        this.asyncRequests = asyncRequests;
+    }
+}
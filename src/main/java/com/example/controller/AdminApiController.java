@@ -0,0 +1,65 @@
+package com.example.controller;
+
+import com.example.service.SearchService;
+import com.example.service.SuggestService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin")
+public class AdminApiController {
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private SuggestService suggestService;
+
+    // 立即刷新索引读取器，使新提交的文档可被检索
+    @PostMapping("/refresh")
+    public Map<String, Object> refresh() throws Exception {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("version", searchService.refresh());
+        return response;
+    }
+
+    // 切换索引目录（蓝绿重建）：不带 dir 时按索引指针切换，带 dir 时切换到该目录并改写指针
+    @PostMapping("/swap")
+    public Map<String, Object> swap(@RequestParam(required = false) String dir) throws Exception {
+        Map<String, Object> result;
+        try {
+            result = dir == null || dir.trim().isEmpty() ? searchService.swapToPointer() : searchService.swap(dir.trim(), true);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+        // 输入提示索引随索引目录一起切换
+        suggestService.reload();
+        return result;
+    }
+
+    // 检索结果缓存的命中、未命中、淘汰和失效统计
+    @GetMapping("/cache")
+    public Map<String, Object> cacheStats() {
+        return searchService.cacheStats();
+    }
+
+    // 清空检索结果缓存
+    @DeleteMapping("/cache")
+    public Map<String, Object> clearCache() {
+        searchService.clearCache();
+        return searchService.cacheStats();
+    }
+
+    // 最近的慢查询，包括解析后的查询、各阶段耗时和命中数
+    @GetMapping("/slow-queries")
+    public Map<String, Object> slowQueries() {
+        return searchService.slowQueries();
+    }
+}
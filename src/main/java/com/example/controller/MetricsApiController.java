@@ -0,0 +1,23 @@
+package com.example.controller;
+
+import com.example.service.SearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api")
+public class MetricsApiController {
+
+    @Autowired
+    private SearchService searchService;
+
+    // 检索各阶段耗时、命中数和段数的分布（自启动起累计），以及索引大小、读取器版本和结果缓存统计
+    @GetMapping("/metrics")
+    public Map<String, Object> metrics() throws Exception {
+        return searchService.metrics();
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.controller;
+
+import com.example.model.ReplicationManifest;
+import com.example.service.SearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// 主节点的复制接口，副本通过它拉取提交快照（search.replication-role=primary 时可用）
+@RestController
+@RequestMapping("/api/replication")
+public class ReplicationApiController {
+
+    @Autowired
+    private SearchService searchService;
+
+    // 最新提交快照的文件清单
+    @GetMapping("/manifest")
+    public ReplicationManifest manifest() throws Exception {
+        try {
+            return searchService.replicationManifest();
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+
+    // 下载快照中的一个文件
+    @GetMapping("/files/{snapshot}/{name:.+}")
+    public ResponseEntity<Resource> file(@PathVariable long snapshot, @PathVariable String name) throws Exception {
+        Path path = searchService.replicationFile(snapshot, name);
+        if (path == null || !Files.exists(path)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No file " + name + " in snapshot " + snapshot);
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .contentLength(Files.size(path))
+                .body(new FileSystemResource(path));
+    }
+}
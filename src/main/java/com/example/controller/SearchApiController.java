@@ -1,11 +1,20 @@
 package com.example.controller;
 
-import com.example.model.SearchResult;
+import com.example.config.SearchProperties;
+import com.example.model.BatchSearchResult;
+import com.example.model.SearchPage;
+import com.example.model.SearchRequest;
+import com.example.model.SuggestResult;
+import com.example.service.SearchRejectedException;
 import com.example.service.SearchService;
+import com.example.service.SuggestService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api")
@@ -14,9 +23,80 @@ public class SearchApiController {
     @Autowired
     private SearchService searchService;
 
+    @Autowired
+    private SuggestService suggestService;
+
+    @Autowired
+    private SearchProperties properties;
+
+    // 参数见 SearchRequest：field、query 必填，fields 为返回字段（默认不含全文），yearFrom/yearTo 为年份范围。
+    // 返回结果列表；search.async-requests=true 时返回 CompletableFuture，见 searchPage
     @GetMapping("/search")
-    public List<SearchResult> search(@RequestParam("field") String field,
-                                     @RequestParam("query") String queryStr) throws Exception {
-        return searchService.search(field, queryStr);
+    public Object search(SearchRequest request) {
+        // 原接口只返回结果列表，不统计分面
+        request.setFacets(null);
+        if (properties.isAsyncRequests()) {
+            return searchService.searchAsync(request)
+                    .handle((page, e) -> unwrap(page, e).getResults());
+        }
+        return searchBlocking(request).getResults();
+    }
+
+    // 分页检索：第一页不传 cursor，之后传入上一页返回的 nextCursor；facets=year,affiliation 时同时返回分面统计；
+    // 超过检索时限时返回 partial=true 的部分结果。
+    // search.async-requests=true 时返回 CompletableFuture：请求线程立即释放，检索完成后由 Spring MVC 异步写回响应
+    @GetMapping("/search/page")
+    public Object searchPage(SearchRequest request) {
+        if (properties.isAsyncRequests()) {
+            return searchService.searchAsync(request).handle(SearchApiController::unwrap);
+        }
+        return searchBlocking(request);
+    }
+
+    private SearchPage searchBlocking(SearchRequest request) {
+        try {
+            return searchService.search(request);
+        } catch (RuntimeException e) {
+            throw toResponseStatus(e);
+        }
+    }
+
+    private static SearchPage unwrap(SearchPage page, Throwable e) {
+        if (e == null) {
+            return page;
+        }
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        throw cause instanceof RuntimeException ? toResponseStatus((RuntimeException) cause) : new CompletionException(cause);
+    }
+
+    // 参数错误返回 400；排队已满返回 429，排队超时返回 503，客户端应稍后重试
+    private static RuntimeException toResponseStatus(RuntimeException e) {
+        if (e instanceof IllegalArgumentException) {
+            return new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        if (e instanceof SearchRejectedException) {
+            return new ResponseStatusException(((SearchRejectedException) e).isQueueFull()
+                    ? HttpStatus.TOO_MANY_REQUESTS : HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+        return e;
+    }
+
+    // 批量检索：请求体为 SearchRequest 数组，在同一时间点的索引视图上并发执行，按顺序返回，单个请求出错时对应条目的 error 不为空；
+    // 检索队列放不下整批请求时返回 429
+    @PostMapping("/search/batch")
+    public List<BatchSearchResult> searchBatch(@RequestBody List<SearchRequest> requests) throws Exception {
+        try {
+            return searchService.searchBatch(requests);
+        } catch (IllegalArgumentException | SearchRejectedException e) {
+            throw toResponseStatus(e);
+        }
+    }
+
+    // 输入提示：field 为 title 或 authors
+    @GetMapping("/suggest")
+    public List<SuggestResult> suggest(@RequestParam(value = "field", defaultValue = "title") String field,
+                                       @RequestParam("prefix") String prefix,
+                                       @RequestParam(value = "count", defaultValue = "8") int count) throws Exception {
+        return suggestService.suggest(field, prefix, count);
     }
 }
@@ -0,0 +1,25 @@
+package com.example.model;
+
+// 批量检索中单个请求的结果，成功时 page 不为空，失败时 error 为错误信息
+public class BatchSearchResult {
+    private SearchPage page;
+    private String error;
+
+    // Getters and Setters
+
+    public SearchPage getPage() {
+        return page;
+    }
+
+    public void setPage(SearchPage page) {
+        this.page = page;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.model;
+
+// 复制快照中的一个索引文件：名称、字节数和 Lucene 文件尾部记录的 CRC32 校验和
+public class ReplicationFile {
+    private String name;
+    private long length;
+    private long checksum;
+
+    // Getters and Setters
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public void setLength(long length) {
+        this.length = length;
+    }
+
+    public long getChecksum() {
+        return checksum;
+    }
+
+    public void setChecksum(long checksum) {
+        this.checksum = checksum;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.model;
+
+import java.util.List;
+
+// 主节点发布的一个提交快照：副本按文件清单拉取本地缺少或不同的文件，segments 文件最后写入
+public class ReplicationManifest {
+    // 快照编号，文件下载地址 /api/replication/files/{snapshot}/{name} 的一部分
+    private long snapshot;
+    // 主节点当前生效的索引目录名（蓝绿切换后改变）
+    private String source;
+    private long generation;
+    private long version;
+    private String segmentsFile;
+    private List<ReplicationFile> files;
+
+    // Getters and Setters
+
+    public long getSnapshot() {
+        return snapshot;
+    }
+
+    public void setSnapshot(long snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public void setGeneration(long generation) {
+        this.generation = generation;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public String getSegmentsFile() {
+        return segmentsFile;
+    }
+
+    public void setSegmentsFile(String segmentsFile) {
+        this.segmentsFile = segmentsFile;
+    }
+
+    public List<ReplicationFile> getFiles() {
+        return files;
+    }
+
+    public void setFiles(List<ReplicationFile> files) {
+        this.files = files;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.model;
+
+import java.util.List;
+import java.util.Map;
+
+public class SearchPage {
+    private List<SearchResult> results;
+    private long totalHits;
+    // totalHits 是否为精确值；为 false 时表示命中数至少为 totalHits
+    private boolean totalHitsExact;
+    // 下一页的游标，没有更多结果时为 null
+    private String nextCursor;
+    // 分面统计：分面名 -> (取值 -> 命中数)，未请求分面时为 null
+    private Map<String, Map<String, Integer>> facets;
+    // 超过检索时限时为 true：收集提前停止（此时没有 nextCursor，命中数为下界），或跳过了部分高亮、拼写建议
+    private boolean partial;
+
+    // Getters and Setters
+
+    public List<SearchResult> getResults() {
+        return results;
+    }
+
+    public void setResults(List<SearchResult> results) {
+        this.results = results;
+    }
+
+    public long getTotalHits() {
+        return totalHits;
+    }
+
+    public void setTotalHits(long totalHits) {
+        this.totalHits = totalHits;
+    }
+
+    public boolean isTotalHitsExact() {
+        return totalHitsExact;
+    }
+
+    public void setTotalHitsExact(boolean totalHitsExact) {
+        this.totalHitsExact = totalHitsExact;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public Map<String, Map<String, Integer>> getFacets() {
+        return facets;
+    }
+
+    public void setFacets(Map<String, Map<String, Integer>> facets) {
+        this.facets = facets;
+    }
+
+    public boolean isPartial() {
+        return partial;
+    }
+
+    public void setPartial(boolean partial) {
+        this.partial = partial;
+    }
+}
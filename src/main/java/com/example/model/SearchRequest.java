@@ -0,0 +1,103 @@
+package com.example.model;
+
+// 检索请求参数，由 GET 参数绑定
+public class SearchRequest {
+    private String field;
+    private String query;
+    private int size = 10;
+    // 上一页返回的 nextCursor，第一页为空
+    private String cursor;
+    // 逗号分隔的返回字段，为空时返回默认字段
+    private String fields;
+    // 出版年份范围（含两端），为空表示不限
+    private Integer yearFrom;
+    private Integer yearTo;
+    // 逗号分隔的分面（year、affiliation），为空时不统计
+    private String facets;
+    // 每个分面返回的最大取值数
+    private int facetCount = 10;
+    // 本次检索的时限（毫秒），只能比 search.search-timeout-ms 更短，为空时使用配置值
+    private Long timeoutMs;
+
+    // Getters and Setters
+
+    public String getField() {
+        return field;
+    }
+
+    public void setField(String field) {
+        this.field = field;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public void setQuery(String query) {
+        this.query = query;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public String getFields() {
+        return fields;
+    }
+
+    public void setFields(String fields) {
+        this.fields = fields;
+    }
+
+    public Integer getYearFrom() {
+        return yearFrom;
+    }
+
+    public void setYearFrom(Integer yearFrom) {
+        this.yearFrom = yearFrom;
+    }
+
+    public Integer getYearTo() {
+        return yearTo;
+    }
+
+    public void setYearTo(Integer yearTo) {
+        this.yearTo = yearTo;
+    }
+
+    public String getFacets() {
+        return facets;
+    }
+
+    public void setFacets(String facets) {
+        this.facets = facets;
+    }
+
+    public int getFacetCount() {
+        return facetCount;
+    }
+
+    public void setFacetCount(int facetCount) {
+        this.facetCount = facetCount;
+    }
+
+    public Long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    public void setTimeoutMs(Long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.model;
+
+import java.util.Map;
+
+// 慢查询日志中的一条记录
+public class SlowQuery {
+    // 记录时间（ISO-8601）
+    private String timestamp;
+    private String field;
+    // 规范化后的查询串（连续空白合并为一个空格）
+    private String query;
+    // 解析后的 Lucene 查询（含年份过滤）
+    private String parsedQuery;
+    private double totalMs;
+    // 各阶段耗时（毫秒）
+    private Map<String, Double> phasesMs;
+    private long hits;
+    private int segments;
+    private long readerVersion;
+    // 排名第一的命中的打分明细，仅在开启 search.slow-query-explain 时记录
+    private String explanation;
+
+    // Getters and Setters
+
+    public String getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(String timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public void setField(String field) {
+        this.field = field;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public void setQuery(String query) {
+        this.query = query;
+    }
+
+    public String getParsedQuery() {
+        return parsedQuery;
+    }
+
+    public void setParsedQuery(String parsedQuery) {
+        this.parsedQuery = parsedQuery;
+    }
+
+    public double getTotalMs() {
+        return totalMs;
+    }
+
+    public void setTotalMs(double totalMs) {
+        this.totalMs = totalMs;
+    }
+
+    public Map<String, Double> getPhasesMs() {
+        return phasesMs;
+    }
+
+    public void setPhasesMs(Map<String, Double> phasesMs) {
+        this.phasesMs = phasesMs;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public void setHits(long hits) {
+        this.hits = hits;
+    }
+
+    public int getSegments() {
+        return segments;
+    }
+
+    public void setSegments(int segments) {
+        this.segments = segments;
+    }
+
+    public long getReaderVersion() {
+        return readerVersion;
+    }
+
+    public void setReaderVersion(long readerVersion) {
+        this.readerVersion = readerVersion;
+    }
+
+    public String getExplanation() {
+        return explanation;
+    }
+
+    public void setExplanation(String explanation) {
+        this.explanation = explanation;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.model;
+
+public class SuggestResult {
+    private String text;
+    private String highlightedText;
+    private long weight;
+    private String id;
+
+    // Getters and Setters
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public String getHighlightedText() {
+        return highlightedText;
+    }
+
+    public void setHighlightedText(String highlightedText) {
+        this.highlightedText = highlightedText;
+    }
+
+    public long getWeight() {
+        return weight;
+    }
+
+    public void setWeight(long weight) {
+        this.weight = weight;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+}
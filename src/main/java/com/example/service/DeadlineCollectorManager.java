@@ -0,0 +1,85 @@
+package com.example.service;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.CollectionTerminatedException;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.CollectorManager;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.FilterCollector;
+import org.apache.lucene.search.FilterLeafCollector;
+import org.apache.lucene.search.LeafCollector;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// 带截止时间的收集：超过 timings.deadline 后不再进入新的段，正在收集的段每 CHECK_INTERVAL 个命中检查一次，
+// 超时即终止该段；各分片已收集的命中照常合并，得到部分结果，并把 timings.timedOut 置为 true。
+// 主要的时限检查由带时限的 IndexSearcher 完成（见 ParallelSearcherFactory.newTimedSearcher），这里作为兜底，分片并行检索时同样生效。
+final class DeadlineCollectorManager<C extends Collector, T>
+        implements CollectorManager<DeadlineCollectorManager.DeadlineCollector<C>, T> {
+
+    private static final int CHECK_INTERVAL = 1024;
+
+    private final CollectorManager<C, T> in;
+    private final SearchTimings timings;
+
+    DeadlineCollectorManager(CollectorManager<C, T> in, SearchTimings timings) {
+        this.in = in;
+        this.timings = timings;
+    }
+
+    @Override
+    public DeadlineCollector<C> newCollector() throws IOException {
+        return new DeadlineCollector<>(in.newCollector(), timings);
+    }
+
+    @Override
+    public T reduce(Collection<DeadlineCollector<C>> collectors) throws IOException {
+        List<C> unwrapped = new ArrayList<>(collectors.size());
+        for (DeadlineCollector<C> collector : collectors) {
+            unwrapped.add(collector.collector);
+        }
+        return in.reduce(unwrapped);
+    }
+
+    static final class DeadlineCollector<C extends Collector> extends FilterCollector {
+        final C collector;
+        private final SearchTimings timings;
+
+        DeadlineCollector(C collector, SearchTimings timings) {
+            super(collector);
+            this.collector = collector;
+            this.timings = timings;
+        }
+
+        @Override
+        public LeafCollector getLeafCollector(LeafReaderContext context) throws IOException {
+            checkDeadline();
+            return new FilterLeafCollector(super.getLeafCollector(context)) {
+                private int count;
+
+                @Override
+                public void collect(int doc) throws IOException {
+                    if (++count % CHECK_INTERVAL == 0) {
+                        checkDeadline();
+                    }
+                    in.collect(doc);
+                }
+
+                // FilterLeafCollector 不转发，需要保留 TopScoreDocCollector 跳过非竞争文档的能力
+                @Override
+                public DocIdSetIterator competitiveIterator() throws IOException {
+                    return in.competitiveIterator();
+                }
+            };
+        }
+
+        private void checkDeadline() {
+            if (timings.pastDeadline()) {
+                throw new CollectionTerminatedException();
+            }
+        }
+    }
+}
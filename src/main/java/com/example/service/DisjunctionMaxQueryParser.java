@@ -0,0 +1,30 @@
+package com.example.service;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.search.DisjunctionMaxQuery;
+import org.apache.lucene.search.Query;
+
+import java.util.List;
+import java.util.Map;
+
+// 多字段查询解析：每个查询词在各字段上的子查询（已乘以字段权重）用 DisjunctionMaxQuery 组合，
+// 得分取最佳字段的 BM25 分数，再加上其余字段分数乘以 tieBreaker。
+// 与 MultiFieldQueryParser 默认的求和相比，某个词同时出现在多个字段不会被重复计分。
+class DisjunctionMaxQueryParser extends MultiFieldQueryParser {
+
+    private final float tieBreaker;
+
+    DisjunctionMaxQueryParser(String[] fields, Analyzer analyzer, Map<String, Float> boosts, float tieBreaker) {
+        super(fields, analyzer, boosts);
+        this.tieBreaker = tieBreaker;
+    }
+
+    @Override
+    protected Query getMultiFieldQuery(List<Query> queries) {
+        if (queries.isEmpty()) {
+            return null;
+        }
+        return new DisjunctionMaxQuery(queries, tieBreaker);
+    }
+}
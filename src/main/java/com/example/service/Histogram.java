@@ -0,0 +1,79 @@
+package com.example.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// 并发直方图：按对数分桶记录非负整数（每个 2 的幂区间分 8 个桶，相对误差不超过 12.5%），
+// 记录时无锁，只在取快照时遍历桶计算分位数。内存占用固定，与记录次数无关。
+public class Histogram {
+
+    private static final int SUB_BUCKETS = 8;
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long value) {
+        value = Math.max(0, value);
+        counts.incrementAndGet(bucket(value));
+        count.increment();
+        sum.add(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    // 小于 8 的值各占一个桶；其余按最高位所在的 2 的幂区间，再按其后 3 位细分
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+        return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS + sub;
+    }
+
+    // 桶内的最大值
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket - SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS;
+        long sub = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return ((SUB_BUCKETS + sub) << (exponent - SUB_BUCKET_BITS)) + width - 1;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    // 快照：记录次数、平均值、p50/p90/p99/p99.9 和最大值，数值除以 scale（如纳秒转毫秒时为 1e6）
+    public Map<String, Object> snapshot(double scale) {
+        long total = count.sum();
+        long maxValue = max.get();
+        double[] quantiles = {0.5, 0.9, 0.99, 0.999};
+        String[] names = {"p50", "p90", "p99", "p999"};
+        long[] values = new long[quantiles.length];
+        long seen = 0;
+        int next = 0;
+        for (int bucket = 0; bucket < BUCKETS && next < quantiles.length && total > 0; bucket++) {
+            seen += counts.get(bucket);
+            while (next < quantiles.length && seen >= Math.ceil(quantiles[next] * total)) {
+                values[next++] = Math.min(upperBound(bucket), maxValue);
+            }
+        }
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("count", total);
+        snapshot.put("mean", total == 0 ? 0.0 : sum.sum() / scale / total);
+        for (int i = 0; i < names.length; i++) {
+            snapshot.put(names[i], values[i] / scale);
+        }
+        snapshot.put("max", maxValue / scale);
+        return snapshot;
+    }
+}
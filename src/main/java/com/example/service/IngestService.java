@@ -0,0 +1,201 @@
+package com.example.service;
+
+import com.example.IndexPointer;
+import com.example.LuceneIndexer;
+import com.example.XMLParser;
+import com.example.config.IngestProperties;
+import com.example.config.SearchProperties;
+import org.apache.lucene.index.ConcurrentMergeScheduler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// 应用内实时索引：监听 XML 目录，对新增、修改和删除的 TEI 文件去抖、分批、校验后
+// 通过常驻的 IndexWriter 写入索引，并以近实时方式让 SearchService 立即可见。
+// 启用时 IndexWriter 由本服务持有，索引目录被加锁，不能再同时运行 LuceneIndexer。
+@Service
+@ConditionalOnProperty(prefix = "ingest", name = "enabled", havingValue = "true")
+public class IngestService {
+
+    private final IngestProperties properties;
+    private final SearchService searchService;
+    private final SuggestService suggestService;
+    private final LuceneIndexer indexer;
+    private final File xmlDir;
+    private final WatchService watchService;
+    private final Thread watcher;
+    private volatile boolean running = true;
+    private long lastCommit = System.currentTimeMillis();
+    private boolean uncommitted;
+
+    public IngestService(IngestProperties properties, SearchProperties searchProperties,
+                         SearchService searchService, SuggestService suggestService) throws Exception {
+        this.properties = properties;
+        this.searchService = searchService;
+        this.suggestService = suggestService;
+        this.xmlDir = new File(properties.getXmlDir());
+        // 写入索引指针当前指向的目录；近实时检索依赖单一的 IndexWriter，多 shard 索引只能由 LuceneIndexer 离线构建
+        String indexDir = IndexPointer.resolve(searchProperties.getIndexDir());
+        if (!LuceneIndexer.shardDirs(indexDir).isEmpty()) {
+            throw new IllegalStateException("ingest.enabled is not supported for a sharded index: " + indexDir);
+        }
+        this.indexer = new LuceneIndexer(indexDir, properties.getRamBufferMb(),
+                ConcurrentMergeScheduler.AUTO_DETECT_MERGES_AND_THREADS, false);
+        searchService.useWriter(indexer.getWriter());
+
+        // 先补齐应用停止期间目录中发生的变化
+        File[] xmlFiles = listXmlFiles();
+        if (xmlFiles != null) {
+            indexer.sync(validFiles(xmlFiles), properties.getThreads(), properties.getMaxBatchSize());
+            searchService.refresh();
+            rebuildSuggesters();
+        }
+
+        watchService = FileSystems.getDefault().newWatchService();
+        xmlDir.toPath().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        watcher = new Thread(this::watch, "ingest-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        System.out.println("Watching " + xmlDir.getAbsolutePath() + " for TEI changes");
+    }
+
+    // 监听循环：积累变更直到目录静默 debounceMs 或达到批大小，再统一处理
+    private void watch() {
+        Map<String, Path> pending = new LinkedHashMap<>();
+        boolean rescan = false;
+        while (running) {
+            try {
+                WatchKey key = watchService.poll(properties.getDebounceMs(), TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            // 事件丢失，改为全量比对目录
+                            rescan = true;
+                            continue;
+                        }
+                        Path name = (Path) event.context();
+                        if (name.toString().endsWith(".xml")) {
+                            pending.put(name.toString(), xmlDir.toPath().resolve(name));
+                        }
+                    }
+                    key.reset();
+                    if (pending.size() < properties.getMaxBatchSize() && !rescan) {
+                        continue;
+                    }
+                }
+                if (rescan) {
+                    File[] xmlFiles = listXmlFiles();
+                    if (xmlFiles != null) {
+                        indexer.sync(validFiles(xmlFiles), properties.getThreads(), properties.getMaxBatchSize());
+                        lastCommit = System.currentTimeMillis();
+                        uncommitted = false;
+                        searchService.refresh();
+                        rebuildSuggesters();
+                    }
+                    rescan = false;
+                    pending.clear();
+                } else if (!pending.isEmpty()) {
+                    processBatch(new ArrayList<>(pending.values()));
+                    pending.clear();
+                }
+                maybeCommit();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                break;
+            } catch (Exception e) {
+                System.err.println("Error ingesting TEI files: " + e.getMessage());
+            }
+        }
+    }
+
+    private void processBatch(List<Path> paths) throws Exception {
+        List<File> changed = new ArrayList<>();
+        int deleted = 0;
+        for (Path path : paths) {
+            File file = path.toFile();
+            if (!file.exists()) {
+                indexer.deleteXML(LuceneIndexer.docId(file));
+                deleted++;
+            } else if (isValid(file)) {
+                changed.add(file);
+            }
+        }
+        if (!changed.isEmpty()) {
+            indexer.indexAll(changed, properties.getThreads(), properties.getMaxBatchSize());
+        }
+        if (!changed.isEmpty() || deleted > 0) {
+            uncommitted = true;
+            // 近实时刷新：无需提交即可检索到本批修改
+            searchService.refresh();
+            System.out.println("Ingested batch: " + changed.size() + " changed, " + deleted + " deleted");
+        }
+    }
+
+    // 合并提交：距上次提交超过 commitIntervalMs 才提交一次，减少 fsync 次数
+    private void maybeCommit() throws Exception {
+        if (uncommitted && System.currentTimeMillis() - lastCommit >= properties.getCommitIntervalMs()) {
+            indexer.commit();
+            lastCommit = System.currentTimeMillis();
+            uncommitted = false;
+            rebuildSuggesters();
+        }
+    }
+
+    // 输入提示索引随提交一起重建，频率受 commitIntervalMs 限制
+    private void rebuildSuggesters() throws Exception {
+        indexer.buildSuggesters();
+        suggestService.reload();
+    }
+
+    private File[] listXmlFiles() {
+        return xmlDir.listFiles((dir, name) -> name.endsWith(".xml"));
+    }
+
+    private File[] validFiles(File[] xmlFiles) {
+        List<File> valid = new ArrayList<>();
+        for (File file : xmlFiles) {
+            if (isValid(file)) {
+                valid.add(file);
+            }
+        }
+        return valid.toArray(new File[0]);
+    }
+
+    // 校验 XML 头部，Grobid 处理失败时写出的错误信息不会进入索引
+    private boolean isValid(File file) {
+        try {
+            if (file.length() > 0 && XMLParser.hasExpectedHeader(file)) {
+                return true;
+            }
+        } catch (IOException e) {
+            // 按无效文件处理
+        }
+        System.err.println("Skipping invalid TEI file: " + file.getName());
+        return false;
+    }
+
+    @PreDestroy
+    public void close() throws Exception {
+        running = false;
+        watchService.close();
+        watcher.join(TimeUnit.SECONDS.toMillis(10));
+        // 关闭时提交所有未提交的修改
+        indexer.close();
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.service;
+
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.ExitableDirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.QueryTimeout;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.SearcherFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 段内并行检索：创建带线程池的 IndexSearcher，一次查询的各个分片（若干个段）在线程池中并行检索后合并。
+// 分片按 maxDocsPerSlice / maxSegmentsPerSlice 划分，小段合并到同一分片，避免为很小的段单独调度任务。
+// threads 为 0 时不使用线程池，与原来一样在请求线程上顺序检索所有段。
+// 多 shard 索引（ShardedDirectoryReader）在每个 shard 内单独划分，任务不跨 shard，查询扇出到所有 shard 并行检索。
+public class ParallelSearcherFactory extends SearcherFactory implements Closeable {
+
+    private final ThreadPoolExecutor executor;
+    private final int maxDocsPerSlice;
+    private final int maxSegmentsPerSlice;
+
+    public ParallelSearcherFactory(int threads, int queueSize, int maxDocsPerSlice, int maxSegmentsPerSlice) {
+        this.maxDocsPerSlice = maxDocsPerSlice;
+        this.maxSegmentsPerSlice = maxSegmentsPerSlice;
+        if (threads <= 0) {
+            executor = null;
+            return;
+        }
+        // 有界队列 + CallerRunsPolicy：线程池繁忙时分片由请求线程自己检索，负载高时自然退化为顺序检索
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), r -> {
+                    Thread thread = new Thread(r, "search-slice-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public boolean isParallel() {
+        return executor != null;
+    }
+
+    @Override
+    public IndexSearcher newSearcher(IndexReader reader, IndexReader previousReader) {
+        if (executor == null) {
+            return new IndexSearcher(reader);
+        }
+        return new IndexSearcher(reader, executor) {
+            @Override
+            protected LeafSlice[] slices(List<LeafReaderContext> leaves) {
+                if (!(reader instanceof ShardedDirectoryReader)) {
+                    return slices(leaves, maxDocsPerSlice, maxSegmentsPerSlice);
+                }
+                // 每个 shard 单独划分
+                List<LeafSlice> slices = new ArrayList<>();
+                for (List<LeafReaderContext> shardLeaves : ((ShardedDirectoryReader) reader).leavesByShard()) {
+                    if (!shardLeaves.isEmpty()) {
+                        slices.addAll(Arrays.asList(slices(shardLeaves, maxDocsPerSlice, maxSegmentsPerSlice)));
+                    }
+                }
+                return slices.toArray(new LeafSlice[0]);
+            }
+        };
+    }
+
+    // 为单个请求创建带时限的 IndexSearcher：读取器包装为 ExitableDirectoryReader，展开词项、读取 DocValues 和点索引时检查时限，
+    // 超时抛出 ExitingReaderException；逐块打分时由 IndexSearcher 检查时限，超时停止并保留已收集的命中。
+    // 包装只是一层轻量的视图，不需要关闭（关闭会释放 base 的读取器），分片沿用 base 的划分
+    public IndexSearcher newTimedSearcher(IndexSearcher base, QueryTimeout timeout) throws IOException {
+        DirectoryReader reader = ExitableDirectoryReader.wrap((DirectoryReader) base.getIndexReader(), timeout);
+        IndexSearcher searcher;
+        if (executor == null) {
+            searcher = new IndexSearcher(reader);
+        } else {
+            searcher = new IndexSearcher(reader, executor) {
+                @Override
+                protected LeafSlice[] slices(List<LeafReaderContext> leaves) {
+                    // 包装后的叶子与原读取器的叶子一一对应，序号相同
+                    LeafSlice[] baseSlices = base.getSlices();
+                    LeafSlice[] slices = new LeafSlice[baseSlices.length];
+                    for (int i = 0; i < baseSlices.length; i++) {
+                        List<LeafReaderContext> slice = new ArrayList<>();
+                        for (LeafReaderContext leaf : baseSlices[i].leaves) {
+                            slice.add(leaves.get(leaf.ord));
+                        }
+                        slices[i] = new LeafSlice(slice);
+                    }
+                    return slices;
+                }
+            };
+        }
+        searcher.setTimeout(timeout);
+        return searcher;
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.service;
+
+import com.example.model.SearchRequest;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// 查询日志：每行一个 JSON 对象，字段与 SearchRequest 相同，例如 {"field":"fulltext","query":"neural network"}。
+// 检索服务把收到的检索请求异步追加到日志中，启动预热时读取日志重放。
+// 写入由后台线程完成，队列满时丢弃记录，不阻塞检索请求。文件超过 maxFileBytes 后滚动为 <文件名>.1，只保留一个旧文件。
+public class QueryLog implements Closeable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+    private final Path path;
+    private final long maxFileBytes;
+    private final BlockingQueue<SearchRequest> queue = new ArrayBlockingQueue<>(10000);
+    private final Thread writer;
+    private volatile boolean closed;
+
+    public QueryLog(Path path, long maxFileBytes) {
+        this.path = path;
+        this.maxFileBytes = maxFileBytes;
+        writer = new Thread(this::writeLoop, "query-log");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // 记录一个检索请求（只保存与结果有关的参数，不含游标）
+    public void record(SearchRequest request) {
+        if (request.getField() == null || request.getQuery() == null || request.getCursor() != null) {
+            return;
+        }
+        queue.offer(request);
+    }
+
+    private void writeLoop() {
+        BufferedWriter out = null;
+        // 当前文件的字节数，按写入的内容累加，不必每条记录都读取文件大小
+        long size = 0;
+        try {
+            while (!closed || !queue.isEmpty()) {
+                SearchRequest request = queue.poll(1, TimeUnit.SECONDS);
+                if (request == null) {
+                    continue;
+                }
+                try {
+                    if (out == null) {
+                        out = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                        size = Files.size(path);
+                    }
+                    String line = MAPPER.writeValueAsString(request);
+                    out.write(line);
+                    out.newLine();
+                    size += line.getBytes(StandardCharsets.UTF_8).length + System.lineSeparator().length();
+                    if (maxFileBytes > 0 && size > maxFileBytes) {
+                        out.close();
+                        out = null;
+                        Files.move(path, Paths.get(path + ".1"), StandardCopyOption.REPLACE_EXISTING);
+                    } else if (queue.isEmpty()) {
+                        // 队列取空时再刷新，连续请求只刷新一次
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    System.err.println("Error writing query log " + path + ": " + e.getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    System.err.println("Error closing query log " + path + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // 读取日志中最后 maxEntries 个检索请求；非 JSON 的行视为在全文中检索的查询串，无法解析的行跳过
+    public static List<SearchRequest> read(Path path, int maxEntries) throws IOException {
+        Deque<SearchRequest> requests = new ArrayDeque<>();
+        read(path, maxEntries, requests);
+        return new ArrayList<>(requests);
+    }
+
+    // 与 read 相同，但先读取滚动出去的 <文件名>.1，刚滚动后当前文件较短时仍能取到最后 maxEntries 个请求
+    public static List<SearchRequest> readWithRolled(Path path, int maxEntries) throws IOException {
+        Deque<SearchRequest> requests = new ArrayDeque<>();
+        Path rolled = Paths.get(path + ".1");
+        if (Files.exists(rolled)) {
+            read(rolled, maxEntries, requests);
+        }
+        if (Files.exists(path)) {
+            read(path, maxEntries, requests);
+        }
+        return new ArrayList<>(requests);
+    }
+
+    private static void read(Path path, int maxEntries, Deque<SearchRequest> requests) throws IOException {
+        try (Stream<String> lines = Files.lines(path, StandardCharsets.UTF_8)) {
+            lines.map(String::trim).filter(line -> !line.isEmpty()).forEach(line -> {
+                SearchRequest request = parse(line);
+                if (request != null) {
+                    requests.addLast(request);
+                    if (requests.size() > maxEntries) {
+                        requests.removeFirst();
+                    }
+                }
+            });
+        }
+    }
+
+    private static SearchRequest parse(String line) {
+        if (!line.startsWith("{")) {
+            SearchRequest request = new SearchRequest();
+            request.setField("fulltext");
+            request.setQuery(line);
+            return request;
+        }
+        try {
+            SearchRequest request = MAPPER.readValue(line, SearchRequest.class);
+            if (request.getQuery() == null) {
+                return null;
+            }
+            if (request.getField() == null) {
+                request.setField("fulltext");
+            }
+            request.setCursor(null);
+            return request;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            writer.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// 检索结果缓存：按 (字段, 规范化查询, 页) 缓存完整的响应，LRU 淘汰，超过 TTL 的条目失效。
+// 缓存内容对应一个 (索引纪元, 读取器版本)：读取器刷新或切换到另一个索引目录后整个缓存自动失效。
+// 读取器版本只在同一索引内可比较，切换索引时纪元增加，新索引的版本即使更小或恰好相同也不会与旧索引混淆。
+public class QueryResultCache<V> {
+
+    private final int maxEntries;
+    private final long ttlMs;
+    private final LinkedHashMap<String, CachedResult<V>> entries;
+    // 当前缓存内容对应的索引纪元和读取器版本
+    private long epoch = -1;
+    private long version = -1;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long invalidations;
+
+    // maxEntries 为 0 时不缓存；ttlMs 为 0 时条目只在读取器刷新或被淘汰时失效
+    public QueryResultCache(int maxEntries, long ttlMs) {
+        this.maxEntries = maxEntries;
+        this.ttlMs = ttlMs;
+        // 按访问顺序排列，最久未访问的条目在最前
+        this.entries = new LinkedHashMap<String, CachedResult<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResult<V>> eldest) {
+                if (size() > QueryResultCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // 缓存键：查询中连续的空白视为一个空格（不改变大小写，AND/OR 等运算符区分大小写）
+    public static String key(String field, String queryStr, Object page) {
+        return field + '\u0000' + queryStr.trim().replaceAll("\\s+", " ") + '\u0000' + page;
+    }
+
+    public boolean isEnabled() {
+        return maxEntries > 0;
+    }
+
+    // 返回索引纪元 indexEpoch、读取器版本 readerVersion 下缓存的结果，没有时返回 null
+    public synchronized V get(String key, long indexEpoch, long readerVersion) {
+        if (!isEnabled()) {
+            return null;
+        }
+        // 更旧的读取器（或切换前的索引）上的查询不使用缓存
+        CachedResult<V> entry = checkVersion(indexEpoch, readerVersion) ? entries.get(key) : null;
+        if (entry != null && ttlMs > 0 && System.currentTimeMillis() - entry.createdAt > ttlMs) {
+            entries.remove(key);
+            expirations++;
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    public synchronized void put(String key, long indexEpoch, long readerVersion, V value) {
+        if (!isEnabled()) {
+            return;
+        }
+        // 旧读取器或切换前的索引上完成的查询不再写入
+        if (checkVersion(indexEpoch, readerVersion)) {
+            entries.put(key, new CachedResult<>(value, System.currentTimeMillis()));
+        }
+    }
+
+    // 纪元或读取器版本更新时清空缓存；并发查询可能仍在使用旧读取器，只接受更新的纪元和版本。
+    // 返回给定的纪元和版本是否与当前缓存内容一致
+    private boolean checkVersion(long indexEpoch, long readerVersion) {
+        if (indexEpoch > epoch || indexEpoch == epoch && readerVersion > version) {
+            if (!entries.isEmpty()) {
+                invalidations++;
+                entries.clear();
+            }
+            epoch = indexEpoch;
+            version = readerVersion;
+        }
+        return indexEpoch == epoch && readerVersion == version;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", isEnabled());
+        stats.put("size", entries.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("ttlMs", ttlMs);
+        stats.put("indexEpoch", epoch);
+        stats.put("readerVersion", version);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        long lookups = hits + misses;
+        stats.put("hitRate", lookups == 0 ? 0.0 : (double) hits / lookups);
+        stats.put("evictions", evictions);
+        stats.put("expirations", expirations);
+        stats.put("invalidations", invalidations);
+        return stats;
+    }
+
+    private static final class CachedResult<V> {
+        final V value;
+        final long createdAt;
+
+        CachedResult(V value, long createdAt) {
+            this.value = value;
+            this.createdAt = createdAt;
+        }
+    }
+}
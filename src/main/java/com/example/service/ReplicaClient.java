@@ -0,0 +1,222 @@
+package com.example.service;
+
+import com.example.model.ReplicationFile;
+import com.example.model.ReplicationManifest;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.index.CorruptIndexException;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexFileNames;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpTimeoutException;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+// 副本：从主节点拉取最新提交快照的文件清单，只下载本地缺少的文件（已有文件按长度和文件尾校验和确认相同后复用），
+// 校验完整后改名就位，segments 文件最后写入，再删除本地不再被引用的索引文件。
+// 追赶的代价与变化的字节数成正比，与索引总大小无关。
+// 清单中的文件在本地存在但内容不同，或本地提交代数更高，说明主节点换成了另一个索引（如蓝绿重建），不能在原目录上增量更新，
+// 此时返回 CONFLICT，由调用方同步到新目录后切换。
+class ReplicaClient {
+
+    enum Result { UP_TO_DATE, UPDATED, CONFLICT }
+
+    private static final String TEMP_SUFFIX = ".replica-tmp";
+    // 下载单个文件的时限：固定 10 秒加上按 10 MB/s 传输该文件所需的时间，主节点停止响应时不会一直阻塞刷新线程。
+    // HttpRequest.timeout 只限制等待响应头的时间，传输中途停顿由整个交换的时限兜底
+    private static final long DOWNLOAD_BASE_TIMEOUT_MS = 10_000;
+    private static final long DOWNLOAD_MIN_BYTES_PER_SECOND = 10L * 1024 * 1024;
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final String primaryUrl;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1).connectTimeout(Duration.ofSeconds(5)).build();
+
+    ReplicaClient(String primaryUrl) {
+        this.primaryUrl = primaryUrl.endsWith("/") ? primaryUrl.substring(0, primaryUrl.length() - 1) : primaryUrl;
+    }
+
+    // 把本地索引目录同步到主节点的最新快照
+    Result sync(String localDir) throws IOException {
+        ReplicationManifest manifest = fetchManifest();
+        Path dir = Paths.get(localDir);
+        Files.createDirectories(dir);
+        try (FSDirectory local = FSDirectory.open(dir)) {
+            // 提交代数倒退也说明主节点换成了另一个索引
+            if (DirectoryReader.indexExists(local)
+                    && SegmentInfos.getLastCommitGeneration(local) > manifest.getGeneration()) {
+                return Result.CONFLICT;
+            }
+            List<ReplicationFile> missing = new ArrayList<>();
+            ReplicationFile segmentsFile = null;
+            Set<String> names = new HashSet<>();
+            for (ReplicationFile file : manifest.getFiles()) {
+                names.add(file.getName());
+                if (!Files.exists(dir.resolve(file.getName()))) {
+                    if (file.getName().equals(manifest.getSegmentsFile())) {
+                        segmentsFile = file;
+                    } else {
+                        missing.add(file);
+                    }
+                } else if (!sameFile(local, file)) {
+                    return Result.CONFLICT;
+                }
+            }
+            if (missing.isEmpty() && segmentsFile == null) {
+                return Result.UP_TO_DATE;
+            }
+
+            long start = System.nanoTime();
+            long bytes = 0;
+            List<String> copied = new ArrayList<>();
+            for (ReplicationFile file : missing) {
+                bytes += download(manifest.getSnapshot(), file, local);
+                copied.add(file.getName());
+            }
+            // 段文件落盘后再写入 segments 文件，本地读取器只会看到完整的提交
+            local.sync(copied);
+            if (segmentsFile != null) {
+                bytes += download(manifest.getSnapshot(), segmentsFile, local);
+                local.sync(List.of(segmentsFile.getName()));
+                copied.add(segmentsFile.getName());
+            }
+            local.syncMetaData();
+            int deleted = deleteUnreferenced(dir, names);
+            System.out.printf("Replicated generation %d from %s: copied %d files (%d bytes), reused %d, deleted %d in %d ms%n",
+                    manifest.getGeneration(), primaryUrl, copied.size(), bytes, names.size() - copied.size(), deleted,
+                    (System.nanoTime() - start) / 1_000_000);
+            return Result.UPDATED;
+        }
+    }
+
+    private ReplicationManifest fetchManifest() throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(primaryUrl + "/api/replication/manifest"))
+                .timeout(Duration.ofSeconds(10)).build();
+        HttpResponse<String> response = send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("Error fetching replication manifest from " + primaryUrl + ": HTTP " + response.statusCode());
+        }
+        return MAPPER.readValue(response.body(), ReplicationManifest.class);
+    }
+
+    // 下载到临时文件，校验长度和整个文件的校验和后改名就位，返回字节数
+    private long download(long snapshot, ReplicationFile file, FSDirectory local) throws IOException {
+        String tempName = file.getName() + TEMP_SUFFIX;
+        Path temp = local.getDirectory().resolve(tempName);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(primaryUrl + "/api/replication/files/" + snapshot + "/"
+                + URLEncoder.encode(file.getName(), StandardCharsets.UTF_8)))
+                .timeout(Duration.ofMillis(DOWNLOAD_BASE_TIMEOUT_MS)).build();
+        long timeoutMs = DOWNLOAD_BASE_TIMEOUT_MS + file.getLength() * 1000 / DOWNLOAD_MIN_BYTES_PER_SECOND;
+        try {
+            HttpResponse<Path> response = send(request, HttpResponse.BodyHandlers.ofFile(temp), timeoutMs);
+            if (response.statusCode() != 200) {
+                throw new IOException("Error fetching " + file.getName() + " from " + primaryUrl + ": HTTP " + response.statusCode());
+            }
+            if (Files.size(temp) != file.getLength()) {
+                throw new CorruptIndexException("Length mismatch: " + Files.size(temp) + " != " + file.getLength(), tempName);
+            }
+            try (IndexInput in = local.openInput(tempName, IOContext.READONCE)) {
+                long checksum = CodecUtil.checksumEntireFile(in);
+                if (checksum != file.getChecksum()) {
+                    throw new CorruptIndexException("Checksum mismatch: " + checksum + " != " + file.getChecksum(), tempName);
+                }
+            }
+            Files.move(temp, local.getDirectory().resolve(file.getName()),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return file.getLength();
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // 本地文件与清单中的文件长度和文件尾校验和都相同
+    private static boolean sameFile(FSDirectory local, ReplicationFile file) throws IOException {
+        if (Files.size(local.getDirectory().resolve(file.getName())) != file.getLength()) {
+            return false;
+        }
+        try (IndexInput in = local.openInput(file.getName(), IOContext.READONCE)) {
+            return CodecUtil.retrieveChecksum(in) == file.getChecksum();
+        } catch (CorruptIndexException e) {
+            return false;
+        }
+    }
+
+    // 删除不属于当前快照的索引文件和残留的临时文件；其他文件（如 write.lock）保留
+    private static int deleteUnreferenced(Path dir, Set<String> names) throws IOException {
+        int deleted = 0;
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path path : (Iterable<Path>) files::iterator) {
+                String name = path.getFileName().toString();
+                boolean indexFile = name.startsWith(IndexFileNames.SEGMENTS) || name.endsWith(TEMP_SUFFIX)
+                        || IndexFileNames.CODEC_FILE_PATTERN.matcher(name).matches();
+                if (indexFile && !names.contains(name)) {
+                    try {
+                        Files.deleteIfExists(path);
+                        deleted++;
+                    } catch (IOException e) {
+                        // 仍被旧读取器占用（如 Windows），下一轮再删除
+                        System.err.println("Error deleting " + path + ": " + e.getMessage());
+                    }
+                }
+            }
+        }
+        return deleted;
+    }
+
+    // 在 timeoutMs 内完成整个请求（包括接收响应体），超时则取消
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler, long timeoutMs)
+            throws IOException {
+        CompletableFuture<HttpResponse<T>> future = client.sendAsync(request, handler);
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new HttpTimeoutException("Timed out after " + timeoutMs + " ms fetching " + request.uri());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Error fetching " + request.uri(), cause);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while replicating from " + primaryUrl);
+        }
+    }
+
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws IOException {
+        try {
+            return client.send(request, handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while replicating from " + primaryUrl);
+        }
+    }
+}
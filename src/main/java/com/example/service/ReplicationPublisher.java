@@ -0,0 +1,143 @@
+package com.example.service;
+
+import com.example.LuceneIndexer;
+import com.example.model.ReplicationFile;
+import com.example.model.ReplicationManifest;
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+// 主节点的提交快照：索引有新的提交时，把该提交引用的文件硬链接到 <索引目录>_replication/<快照编号>/ 下并生成文件清单。
+// 写入器可能在另一个进程中（LuceneIndexer），无法对它的 SnapshotDeletionPolicy 调用 snapshot，
+// 而索引文件一经写入就不再修改，硬链接相当于在文件系统层面持有快照：写入器删除旧提交后，快照中的文件仍可下载。
+// 只保留最近 keepSnapshots 个快照；正在下载被清理快照的副本会在下一轮改为拉取最新快照，已下载的文件不会重复下载。
+class ReplicationPublisher {
+
+    private final Path root;
+    private final int keepSnapshots;
+    private final Deque<Published> published = new ArrayDeque<>();
+    private long nextSnapshot = 1;
+
+    ReplicationPublisher(String indexDir, int keepSnapshots) throws IOException {
+        this.root = Paths.get(indexDir + "_replication").toAbsolutePath();
+        this.keepSnapshots = Math.max(1, keepSnapshots);
+        // 快照只在进程内有效，启动时清空上次留下的快照
+        if (Files.exists(root)) {
+            LuceneIndexer.deleteRecursively(root);
+        }
+        Files.createDirectories(root);
+    }
+
+    // 返回 indexDir 最新提交的快照，提交未变化时直接返回上次的清单
+    synchronized ReplicationManifest latest(String indexDir) throws IOException {
+        if (!LuceneIndexer.shardDirs(indexDir).isEmpty()) {
+            throw new IllegalStateException("Replication does not support a sharded index: " + indexDir);
+        }
+        Path source = Paths.get(indexDir).toAbsolutePath().normalize();
+        try (Directory dir = FSDirectory.open(source)) {
+            // 链接期间写入器可能提交并删除旧提交的文件，此时改为发布更新的提交
+            for (int attempt = 0; ; attempt++) {
+                long generation = SegmentInfos.getLastCommitGeneration(dir);
+                Published last = published.peekLast();
+                if (last != null && last.source.equals(source) && last.manifest.getGeneration() == generation) {
+                    return last.manifest;
+                }
+                try {
+                    return publish(source, dir);
+                } catch (NoSuchFileException e) {
+                    if (attempt >= 3) {
+                        throw e;
+                    }
+                }
+            }
+        }
+    }
+
+    // 快照中的文件；快照已被清理或文件不属于该快照时返回 null
+    synchronized Path file(long snapshot, String name) {
+        for (Published entry : published) {
+            if (entry.manifest.getSnapshot() == snapshot && entry.names.contains(name)) {
+                return entry.dir.resolve(name);
+            }
+        }
+        return null;
+    }
+
+    private ReplicationManifest publish(Path source, Directory dir) throws IOException {
+        SegmentInfos infos = SegmentInfos.readLatestCommit(dir);
+        long snapshot = nextSnapshot++;
+        Path snapshotDir = root.resolve(Long.toString(snapshot));
+        Files.createDirectories(snapshotDir);
+        List<String> names = new ArrayList<>(infos.files(true));
+        Collections.sort(names);
+        List<ReplicationFile> files = new ArrayList<>();
+        try (Directory snapshotDirectory = FSDirectory.open(snapshotDir)) {
+            for (String name : names) {
+                link(source.resolve(name), snapshotDir.resolve(name));
+                ReplicationFile file = new ReplicationFile();
+                file.setName(name);
+                file.setLength(Files.size(snapshotDir.resolve(name)));
+                try (IndexInput in = snapshotDirectory.openInput(name, IOContext.READONCE)) {
+                    file.setChecksum(CodecUtil.retrieveChecksum(in));
+                }
+                files.add(file);
+            }
+        } catch (IOException | RuntimeException e) {
+            LuceneIndexer.deleteRecursively(snapshotDir);
+            throw e;
+        }
+        ReplicationManifest manifest = new ReplicationManifest();
+        manifest.setSnapshot(snapshot);
+        manifest.setSource(source.getFileName().toString());
+        manifest.setGeneration(infos.getGeneration());
+        manifest.setVersion(infos.getVersion());
+        manifest.setSegmentsFile(infos.getSegmentsFileName());
+        manifest.setFiles(files);
+        published.addLast(new Published(source, snapshotDir, manifest, names));
+        while (published.size() > keepSnapshots) {
+            LuceneIndexer.deleteRecursively(published.removeFirst().dir);
+        }
+        System.out.println("Published replication snapshot " + snapshot + " of " + source + " generation "
+                + infos.getGeneration() + " (" + files.size() + " files)");
+        return manifest;
+    }
+
+    // 优先硬链接，不在同一文件系统等无法链接时复制
+    private static void link(Path from, Path to) throws IOException {
+        try {
+            Files.createLink(to, from);
+        } catch (NoSuchFileException e) {
+            throw e;
+        } catch (IOException | UnsupportedOperationException e) {
+            Files.copy(from, to);
+        }
+    }
+
+    private static final class Published {
+        final Path source;
+        final Path dir;
+        final ReplicationManifest manifest;
+        final List<String> names;
+
+        Published(Path source, Path dir, ReplicationManifest manifest, List<String> names) {
+            this.source = source;
+            this.dir = dir;
+            this.manifest = manifest;
+            this.names = names;
+        }
+    }
+}
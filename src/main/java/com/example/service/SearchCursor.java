@@ -0,0 +1,43 @@
+package com.example.service;
+
+import org.apache.lucene.search.ScoreDoc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// 分页游标：记录上一页最后一个命中的 (分数, 文档号) 以及所用读取器的索引纪元和版本，
+// 编码为不透明的 URL 安全字符串。下一页用同一版本的读取器 searchAfter，翻到第几页代价都相同；
+// 纪元不同（切换过索引目录）时版本号不可比较，退回当前读取器。
+final class SearchCursor {
+
+    final long epoch;
+    final long version;
+    final ScoreDoc after;
+
+    SearchCursor(long epoch, long version, ScoreDoc after) {
+        this.epoch = epoch;
+        this.version = version;
+        this.after = after;
+    }
+
+    String encode() {
+        String raw = epoch + ":" + version + ":" + Float.floatToIntBits(after.score) + ":" + after.doc;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static SearchCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            float score = Float.intBitsToFloat(Integer.parseInt(parts[2]));
+            return new SearchCursor(Long.parseLong(parts[0]), Long.parseLong(parts[1]),
+                    new ScoreDoc(Integer.parseInt(parts[3]), score));
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException 也是 IllegalArgumentException
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
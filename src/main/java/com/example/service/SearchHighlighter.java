@@ -0,0 +1,120 @@
+package com.example.service;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.highlight.Highlighter;
+import org.apache.lucene.search.highlight.InvalidTokenOffsetsException;
+import org.apache.lucene.search.highlight.QueryScorer;
+import org.apache.lucene.search.highlight.SimpleFragmenter;
+import org.apache.lucene.search.highlight.SimpleHTMLFormatter;
+import org.apache.lucene.search.highlight.TokenSources;
+import org.apache.lucene.search.uhighlight.DefaultPassageFormatter;
+import org.apache.lucene.search.uhighlight.LengthGoalBreakIterator;
+import org.apache.lucene.search.uhighlight.UnifiedHighlighter;
+
+import java.io.IOException;
+import java.text.BreakIterator;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+
+// 检索结果高亮。
+// UNIFIED：基于索引中的偏移量（postings offsets），一次处理整页命中，无需重新分析全文；
+// CLASSIC：原有实现，逐个命中用分析器重新切分存储的字段文本。
+// 两种方式使用相同的标签和约 150 字符的片段长度。
+public class SearchHighlighter {
+
+    public static final String PRE_TAG = "<span style=\"background-color:yellow;\">";
+    public static final String POST_TAG = "</span>";
+    public static final int FRAGMENT_SIZE = 150;
+
+    public enum Mode {
+        UNIFIED,
+        CLASSIC
+    }
+
+    // 返回与 topDocs.scoreDocs 一一对应的高亮片段，没有匹配时对应位置为 null
+    public static String[] highlight(Mode mode, IndexSearcher searcher, Analyzer analyzer,
+                                     String field, Query query, TopDocs topDocs) throws IOException {
+        return highlight(mode, searcher, analyzer, field, query, topDocs, 0);
+    }
+
+    // 同上。
+    // deadline 为截止时间（System.nanoTime，0 表示不限），CLASSIC 逐个命中高亮时超过后停止，其余命中的片段为 null
+    public static String[] highlight(Mode mode, IndexSearcher searcher, Analyzer analyzer,
+                                     String field, Query query, TopDocs topDocs, long deadline) throws IOException {
+        if (mode == Mode.CLASSIC) {
+            return highlightClassic(searcher, analyzer, field, query, topDocs, deadline);
+        }
+        return newUnifiedHighlighter(searcher, analyzer).highlight(field, query, topDocs, 1);
+    }
+
+    // 多字段高亮：每个命中按 fields 的顺序取第一个有匹配的字段的片段
+    public static String[] highlight(Mode mode, IndexSearcher searcher, Analyzer analyzer,
+                                     String[] fields, Query query, TopDocs topDocs, long deadline) throws IOException {
+        String[][] perField = new String[fields.length][];
+        if (mode == Mode.CLASSIC) {
+            for (int f = 0; f < fields.length; f++) {
+                perField[f] = highlightClassic(searcher, analyzer, fields[f], query, topDocs, deadline);
+            }
+        } else {
+            int[] maxPassages = new int[fields.length];
+            Arrays.fill(maxPassages, 1);
+            Map<String, String[]> highlights = newUnifiedHighlighter(searcher, analyzer)
+                    .highlightFields(fields, query, topDocs, maxPassages);
+            for (int f = 0; f < fields.length; f++) {
+                perField[f] = highlights.get(fields[f]);
+            }
+        }
+        String[] fragments = new String[topDocs.scoreDocs.length];
+        for (int i = 0; i < fragments.length; i++) {
+            for (int f = 0; f < fields.length && fragments[i] == null; f++) {
+                fragments[i] = perField[f][i];
+            }
+        }
+        return fragments;
+    }
+
+    private static UnifiedHighlighter newUnifiedHighlighter(IndexSearcher searcher, Analyzer analyzer) {
+        return UnifiedHighlighter.builder(searcher, analyzer)
+                .withFormatter(new DefaultPassageFormatter(PRE_TAG, POST_TAG, "... ", false))
+                .withBreakIterator(() -> LengthGoalBreakIterator.createClosestToLength(
+                        BreakIterator.getWordInstance(Locale.ROOT), FRAGMENT_SIZE, 0.5f))
+                .withMaxLength(Highlighter.DEFAULT_MAX_CHARS_TO_ANALYZE)
+                // 与原实现一致：没有匹配时不返回片段，由调用方回退到原文
+                .withMaxNoHighlightPassages(0)
+                .build();
+    }
+
+    private static String[] highlightClassic(IndexSearcher searcher, Analyzer analyzer,
+                                             String field, Query query, TopDocs topDocs, long deadline) throws IOException {
+        SimpleHTMLFormatter formatter = new SimpleHTMLFormatter(PRE_TAG, POST_TAG);
+        QueryScorer scorer = new QueryScorer(query);
+        Highlighter highlighter = new Highlighter(formatter, scorer);
+        highlighter.setTextFragmenter(new SimpleFragmenter(FRAGMENT_SIZE));
+
+        String[] fragments = new String[topDocs.scoreDocs.length];
+        for (int i = 0; i < fragments.length; i++) {
+            if (deadline != 0 && System.nanoTime() - deadline > 0) {
+                break;
+            }
+            ScoreDoc scoreDoc = topDocs.scoreDocs[i];
+            String text = searcher.storedFields().document(scoreDoc.doc, Collections.singleton(field)).get(field);
+            if (text == null) {
+                continue;
+            }
+            TokenStream tokenStream = TokenSources.getAnyTokenStream(searcher.getIndexReader(), scoreDoc.doc, field, analyzer);
+            try {
+                fragments[i] = highlighter.getBestFragment(tokenStream, text);
+            } catch (InvalidTokenOffsetsException e) {
+                throw new IOException(e);
+            }
+        }
+        return fragments;
+    }
+}
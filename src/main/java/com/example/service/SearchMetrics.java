@@ -0,0 +1,93 @@
+package com.example.service;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// 检索指标：每个阶段（解析、检索、读取存储字段、高亮、拼写建议）和整体耗时的直方图，
+// 以及命中数、段数的分布和请求、错误、缓存命中、零命中计数，准入控制拒绝（排队已满、排队超时）和超时返回部分结果的计数。自启动起累计。
+public class SearchMetrics {
+
+    private final Histogram total = new Histogram();
+    private final Histogram[] phases = new Histogram[SearchTimings.Phase.values().length];
+    private final Histogram hits = new Histogram();
+    private final Histogram segments = new Histogram();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder zeroHits = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+    private final LongAdder partial = new LongAdder();
+
+    public SearchMetrics() {
+        for (int i = 0; i < phases.length; i++) {
+            phases[i] = new Histogram();
+        }
+    }
+
+    void record(SearchTimings timings) {
+        requests.increment();
+        total.record(timings.totalNanos);
+        if (timings.timedOut) {
+            partial.increment();
+        }
+        if (timings.cacheHit) {
+            // 缓存命中时没有执行各阶段，只计入整体耗时
+            cacheHits.increment();
+            return;
+        }
+        for (SearchTimings.Phase phase : SearchTimings.Phase.values()) {
+            // 零命中时不高亮、不读取存储字段，有命中时不做拼写建议，未执行的阶段不计入
+            if (timings.nanos(phase) > 0) {
+                phases[phase.ordinal()].record(timings.nanos(phase));
+            }
+        }
+        hits.record(timings.hits);
+        segments.record(timings.segments);
+        if (timings.hits == 0) {
+            zeroHits.increment();
+        }
+    }
+
+    void recordError() {
+        requests.increment();
+        errors.increment();
+    }
+
+    // 被准入控制拒绝的请求：queueFull 为排队已满，否则为排队超时
+    void recordRejected(boolean queueFull) {
+        requests.increment();
+        (queueFull ? rejected : shed).increment();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("requests", requests.sum());
+        snapshot.put("errors", errors.sum());
+        snapshot.put("cacheHits", cacheHits.sum());
+        snapshot.put("zeroHits", zeroHits.sum());
+        snapshot.put("rejected", rejected.sum());
+        snapshot.put("shed", shed.sum());
+        snapshot.put("partial", partial.sum());
+        snapshot.put("totalMs", total.snapshot(1e6));
+        Map<String, Object> phaseSnapshots = new LinkedHashMap<>();
+        for (SearchTimings.Phase phase : SearchTimings.Phase.values()) {
+            phaseSnapshots.put(camelCase(phase.name()) + "Ms", phases[phase.ordinal()].snapshot(1e6));
+        }
+        snapshot.put("phases", phaseSnapshots);
+        snapshot.put("hits", hits.snapshot(1));
+        snapshot.put("segments", segments.snapshot(1));
+        return snapshot;
+    }
+
+    // STORED_FIELDS -> storedFields
+    static String camelCase(String name) {
+        StringBuilder result = new StringBuilder();
+        for (String part : name.toLowerCase(Locale.ROOT).split("_")) {
+            result.append(result.length() == 0 ? part : Character.toUpperCase(part.charAt(0)) + part.substring(1));
+        }
+        return result.toString();
+    }
+}
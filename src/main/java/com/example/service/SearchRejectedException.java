@@ -0,0 +1,18 @@
+package com.example.service;
+
+// 检索请求因过载被拒绝：queueFull 为 true 表示排队已满，直接拒绝；为 false 表示排队超过等待时限后被移出队列
+public class SearchRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final boolean queueFull;
+
+    public SearchRejectedException(String message, boolean queueFull) {
+        super(message);
+        this.queueFull = queueFull;
+    }
+
+    public boolean isQueueFull() {
+        return queueFull;
+    }
+}
@@ -1,62 +1,250 @@
 package com.example.service;
 
+import com.example.IndexPointer;
+import com.example.LuceneIndexer;
+import com.example.PorterStemAnalyzer;
+import com.example.config.SearchProperties;
+import com.example.model.BatchSearchResult;
+import com.example.model.ReplicationManifest;
+import com.example.model.SearchPage;
+import com.example.model.SearchRequest;
 import com.example.model.SearchResult;
+import com.example.model.SlowQuery;
 import org.apache.lucene.analysis.Analyzer;
-import org.apache.lucene.analysis.TokenStream;
-import org.apache.lucene.analysis.Tokenizer;
-import org.apache.lucene.analysis.standard.StandardAnalyzer;
-import org.apache.lucene.analysis.standard.StandardTokenizer;
-import org.apache.lucene.analysis.LowerCaseFilter;
-import org.apache.lucene.analysis.core.StopFilter;
-import org.apache.lucene.analysis.en.EnglishAnalyzer;
-import org.apache.lucene.analysis.en.PorterStemFilter;
 import org.apache.lucene.document.Document;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.facet.FacetResult;
+import org.apache.lucene.facet.FacetsCollector;
+import org.apache.lucene.facet.FacetsCollectorManager;
+import org.apache.lucene.facet.LabelAndValue;
+import org.apache.lucene.facet.LongValueFacetCounts;
+import org.apache.lucene.facet.StringDocValuesReaderState;
+import org.apache.lucene.facet.StringValueFacetCounts;
 import org.apache.lucene.index.*;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.classic.QueryParser;
 import org.apache.lucene.search.*;
-import org.apache.lucene.search.highlight.*;
-import org.apache.lucene.search.spell.*;
+import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.FilterDirectory;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.util.IOUtils;
 import org.springframework.stereotype.Service;
 
 // import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class SearchService {
 
-    private IndexSearcher searcher;
+    // 引用计数的 IndexSearcher 管理器，刷新后新查询使用新的读取器，进行中的查询仍持有旧的时间点视图
+    // 切换到近实时模式时会被替换，因此为 volatile
+    private volatile SearcherManager searcherManager;
+    // 创建 IndexSearcher，配置了线程池时一次查询的各段并行检索
+    private ParallelSearcherFactory searcherFactory;
     private Analyzer analyzer;
-    private IndexReader reader;
-    private Map<String, SpellChecker> spellCheckers;
+    // 切换索引目录时与读取器一起替换
+    private volatile SpellSuggester spellSuggester;
+    private SpellSuggester.Mode spellcheckMode;
+    private SearchHighlighter.Mode highlighterMode;
+    // 检索结果缓存，读取器刷新后自动失效
+    private QueryResultCache<SearchPage> resultCache;
+    // 保留发出过分页游标的旧读取器，翻页时继续使用同一时间点视图
+    // 切换索引目录后换成新的实例，旧索引的游标退回当前读取器
+    private volatile SearcherLifetimeManager lifetimeManager = new SearcherLifetimeManager();
+    // 当前读取器管理器打开的索引目录；SearcherManager 不会关闭它们，读取器全部归还后由 drain 或 close 关闭
+    private List<Directory> directories = new ArrayList<>();
+    // 索引纪元：读取器版本只在同一索引内可比较，缓存和游标按 (纪元, 版本) 区分。
+    // 切换索引目录时在替换读取器前后各加 1，为奇数表示正在切换；获取读取器前后纪元不变才能确定读取器属于该纪元
+    private volatile long epoch;
+    private long lastRecordedVersion = -1;
+    private int maxPageSize;
+    // field=all 时检索的字段、权重和 tieBreaker
+    private String[] allFields;
+    private String[] allFieldsHighlightOrder;
+    private Map<String, Float> fieldBoosts;
+    private float tieBreaker;
+    private int totalHitsThreshold;
+    private double cursorTtlSeconds;
+    // 最近一个读取器的机构分面状态
+    private volatile AffiliationState affiliationState;
+    // 后台定时刷新线程
+    private ScheduledExecutorService refresher;
+    // 批量检索的线程池
+    private ThreadPoolExecutor batchExecutor;
+    private int maxBatchSize;
+    // 准入控制：有界的检索线程池，未开启时为 null；排队超时和检索时限（纳秒，0 表示不限）
+    private ThreadPoolExecutor searchExecutor;
+    // 到时把仍在排队的检索移出队列，不占用等待结果的线程；不限排队时间时为 null
+    private ScheduledThreadPoolExecutor admissionTimer;
+    private long admissionQueueTimeoutNanos;
+    private long searchTimeoutNanos;
+    // 记录收到的检索请求，供下次启动预热使用；未配置时为 null
+    private QueryLog queryLog;
+    // 各阶段耗时等检索指标
+    private final SearchMetrics metrics = new SearchMetrics();
+    // 超过阈值的检索写入慢查询日志；未开启时为 null
+    private SlowQueryLog slowQueryLog;
+    private long slowQueryThresholdNanos;
+    private boolean slowQueryExplain;
+    // 配置的索引目录，以及按索引指针解析出的当前生效目录（蓝绿重建切换后改变）
+    private String baseIndexDir;
+    private volatile String activeIndexDir;
+    private String preloadExtensions;
+    private long swapDrainTimeoutMs;
+    private boolean swapDeleteOld;
+    // 上次切换失败的目标目录，指针未再变化时不重复尝试
+    private String failedSwapTarget;
+    // 已切换到 IndexWriter 的近实时读取器，此时不能切换索引目录
+    private volatile boolean nearRealTime;
+    // 主节点发布提交快照，副本从主节点拉取；未开启复制时均为 null
+    private ReplicationPublisher replicationPublisher;
+    private ReplicaClient replicaClient;
 
-    public SearchService() throws IOException {
+    public SearchService(SearchProperties properties) throws IOException {
+        // 异步处理依赖检索线程池，没有准入控制时检索会在请求线程上同步执行，异步配置形同虚设
+        if (properties.isAsyncRequests() && properties.getMaxConcurrentSearches() <= 0) {
+            throw new IllegalStateException("search.async-requests=true requires search.max-concurrent-searches > 0");
+        }
         try {
-            String indexDir = "index";
-            Directory dir = FSDirectory.open(Paths.get(indexDir));
-            reader = DirectoryReader.open(dir);
-            searcher = new IndexSearcher(reader);
+            baseIndexDir = properties.getIndexDir();
+            activeIndexDir = IndexPointer.resolve(baseIndexDir);
+            preloadExtensions = properties.getPreloadExtensions();
+            swapDrainTimeoutMs = properties.getSwapDrainTimeoutMs();
+            swapDeleteOld = properties.isSwapDeleteOld();
+            if (properties.getReplicationRole() == SearchProperties.ReplicationRole.PRIMARY) {
+                replicationPublisher = new ReplicationPublisher(baseIndexDir, properties.getReplicationKeepSnapshots());
+            } else if (properties.getReplicationRole() == SearchProperties.ReplicationRole.REPLICA) {
+                replicaClient = new ReplicaClient(properties.getReplicationPrimaryUrl());
+                activeIndexDir = initialReplicaSync(activeIndexDir);
+            }
+            List<Path> shards = LuceneIndexer.shardDirs(activeIndexDir);
+            int searchThreads = properties.getSearchThreads();
+            if (!shards.isEmpty() && searchThreads == 0) {
+                // 多 shard 索引默认每个 shard 一个检索线程，查询并行扇出到所有 shard
+                searchThreads = shards.size();
+            }
+            searcherFactory = new ParallelSearcherFactory(searchThreads, properties.getSearchQueueSize(),
+                    properties.getSliceMaxDocs(), properties.getSliceMaxSegments());
+            searcherManager = openSearcherManager(activeIndexDir, directories);
+            if (!activeIndexDir.equals(baseIndexDir)) {
+                System.out.println("Index pointer resolves to " + activeIndexDir);
+            }
             analyzer = new PorterStemAnalyzer();
+            highlighterMode = properties.getHighlighter();
+            resultCache = new QueryResultCache<>(properties.getCacheMaxEntries(), properties.getCacheTtlMs());
+            maxPageSize = properties.getMaxPageSize();
+            fieldBoosts = new LinkedHashMap<>();
+            properties.getFieldBoosts().forEach((name, boost) -> {
+                if (boost > 0) {
+                    fieldBoosts.put(name, boost);
+                }
+            });
+            allFields = fieldBoosts.keySet().toArray(new String[0]);
+            allFieldsHighlightOrder = highlightOrder(allFields);
+            tieBreaker = properties.getTieBreaker();
+            totalHitsThreshold = properties.getTotalHitsThreshold();
+            cursorTtlSeconds = properties.getCursorTtlSeconds();
 
-            // 构建每个字段独立的拼写检查器
-            spellCheckers = new HashMap<>();
-            String[] fields = {"title", "authors", "affiliation", "address", "fulltext", "date"};
+            // 有界队列 + CallerRunsPolicy：队列满时由请求线程自己执行，避免无限堆积
+            int batchThreads = properties.getBatchThreads();
+            AtomicInteger batchThreadCount = new AtomicInteger();
+            batchExecutor = new ThreadPoolExecutor(batchThreads, batchThreads, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(properties.getBatchQueueSize()), r -> {
+                        Thread thread = new Thread(r, "batch-search-" + batchThreadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }, new ThreadPoolExecutor.CallerRunsPolicy());
+            maxBatchSize = properties.getMaxBatchSize();
 
-            for (String field : fields) {
-                Path spellIndexPath = Paths.get(indexDir + "_" + field + "_spell");
-                Directory spellIndexDir = FSDirectory.open(Paths.get(indexDir + "_" + field + "_spell"));
-                SpellChecker spellChecker = new SpellChecker(spellIndexDir);
-                // spellChecker.indexDictionary(new LuceneDictionary(reader, field), new IndexWriterConfig(new StandardAnalyzer()), true);
-                if (!Files.exists(spellIndexPath) || !DirectoryReader.indexExists(spellIndexDir)) {
-                    spellChecker.indexDictionary(new LuceneDictionary(reader, field), new IndexWriterConfig(new StandardAnalyzer()), true);
+            // 准入控制：最多 maxConcurrentSearches 个检索同时执行，其余排队；队列满时直接拒绝，不再由请求线程自己执行
+            int maxConcurrentSearches = properties.getMaxConcurrentSearches();
+            if (maxConcurrentSearches > 0) {
+                AtomicInteger searchThreadCount = new AtomicInteger();
+                int queueSize = properties.getAdmissionQueueSize();
+                searchExecutor = new ThreadPoolExecutor(maxConcurrentSearches, maxConcurrentSearches, 0L, TimeUnit.MILLISECONDS,
+                        queueSize > 0 ? new ArrayBlockingQueue<>(queueSize) : new SynchronousQueue<>(), r -> {
+                            Thread thread = new Thread(r, "search-" + searchThreadCount.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        }, new ThreadPoolExecutor.AbortPolicy());
+                if (properties.getAdmissionQueueTimeoutMs() > 0) {
+                    admissionQueueTimeoutNanos = properties.getAdmissionQueueTimeoutMs() * 1_000_000L;
+                    admissionTimer = new ScheduledThreadPoolExecutor(1, r -> {
+                        Thread thread = new Thread(r, "search-admission-timeout");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    // 检索开始或完成后取消的超时任务立即移出，排队的请求很多时不会堆积
+                    admissionTimer.setRemoveOnCancelPolicy(true);
                 }
-                spellCheckers.put(field, spellChecker);
+            }
+            searchTimeoutNanos = Math.max(0, properties.getSearchTimeoutMs()) * 1_000_000L;
+
+            if (properties.getSlowQueryThresholdMs() > 0) {
+                slowQueryThresholdNanos = properties.getSlowQueryThresholdMs() * 1_000_000L;
+                slowQueryExplain = properties.isSlowQueryExplain();
+                slowQueryLog = new SlowQueryLog(properties.getSlowQueryLog(), properties.getSlowQueryLogMaxBytes(),
+                        properties.getSlowQueryRecent());
+            }
+
+            // 拼写建议，默认直接读取主索引，不再在启动时构建侧索引
+            spellcheckMode = properties.getSpellcheck();
+            try (Lease lease = acquire()) {
+                spellSuggester = new SpellSuggester(spellcheckMode, activeIndexDir, lease.searcher.getIndexReader());
+            }
+
+            // 在对外提供服务前重放查询日志，预热页缓存、JIT 和查询缓存
+            String queryLogPath = properties.getQueryLog();
+            String warmupLog = properties.getWarmupLog().isEmpty() ? queryLogPath : properties.getWarmupLog();
+            if (!warmupLog.isEmpty() && properties.getWarmupTimeBudgetMs() > 0) {
+                warmUp(Paths.get(warmupLog), properties.getWarmupMaxQueries(), properties.getWarmupTimeBudgetMs());
+            }
+            if (!queryLogPath.isEmpty()) {
+                queryLog = new QueryLog(Paths.get(queryLogPath), properties.getQueryLogMaxBytes());
+            }
+
+            // 定时检查索引是否有新的提交，有则在后台打开新的读取器；索引指针改变时切换到新目录
+            long interval = properties.getRefreshIntervalMs();
+            if (interval > 0) {
+                refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread thread = new Thread(r, "searcher-refresh");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                refresher.scheduleWithFixedDelay(() -> {
+                    try {
+                        if (replicaClient != null) {
+                            replicate();
+                        }
+                        checkIndexPointer();
+                        searcherManager.maybeRefresh();
+                    } catch (IOException | AlreadyClosedException e) {
+                        System.err.println("Error refreshing searcher: " + e.getMessage());
+                    }
+                }, interval, interval, TimeUnit.MILLISECONDS);
             }
         } catch (IOException e) {
             System.err.println("Error initializing SearchService: " + e.getMessage());
@@ -64,77 +252,1068 @@ public class SearchService {
         }
     }
 
-    public List<SearchResult> search(String field, String queryStr) {
-        List<SearchResult> resultsList = new ArrayList<>();
+    // 打开索引目录的读取器管理器；目录下有 shard-* 子目录时组合所有 shard。打开的目录加入 opened，失败时全部关闭
+    private SearcherManager openSearcherManager(String indexDir, List<Directory> opened) throws IOException {
         try {
-            QueryParser parser = new QueryParser(field, analyzer);
-            Query query = parser.parse(queryStr);
-
-            SimpleHTMLFormatter formatter = new SimpleHTMLFormatter("<span style=\"background-color:yellow;\">", "</span>");
-            QueryScorer scorer = new QueryScorer(query);
-            Highlighter highlighter = new Highlighter(formatter, scorer);
-            Fragmenter fragmenter = new SimpleFragmenter(150);
-            highlighter.setTextFragmenter(fragmenter);
-
-            TopDocs results = searcher.search(query, 10);
-
-            if (results.totalHits.value == 0) {
-                SpellChecker spellChecker = spellCheckers.get(field);
-                if (spellChecker != null) {
-                    String[] suggestions = spellChecker.suggestSimilar(queryStr, 5);
-                    if (suggestions.length > 0) {
-                        for (String suggestion : suggestions) {
-                            SearchResult suggestionResult = new SearchResult();
-                            suggestionResult.setSuggestion(suggestion);
-                            resultsList.add(suggestionResult);
-                        }
-                    }
+            List<Path> shards = LuceneIndexer.shardDirs(indexDir);
+            if (shards.isEmpty()) {
+                Directory dir = openDirectory(indexDir, preloadExtensions);
+                opened.add(dir);
+                return new SearcherManager(dir, searcherFactory);
+            }
+            Directory[] dirs = new Directory[shards.size()];
+            for (int i = 0; i < dirs.length; i++) {
+                dirs[i] = openDirectory(shards.get(i).toString(), preloadExtensions);
+                opened.add(dirs[i]);
+            }
+            System.out.println("Opening sharded index " + indexDir + " with " + dirs.length + " shards");
+            return new SearcherManager(ShardedDirectoryReader.open(dirs), searcherFactory);
+        } catch (IOException | RuntimeException e) {
+            IOUtils.closeWhileHandlingException(opened);
+            opened.clear();
+            throw e;
+        }
+    }
+
+    // 打开索引目录；配置了预加载的扩展名时，这些文件在读取器打开时整体读入内存（如 tim,tip,doc,dvd），其余文件按需换入
+    private static Directory openDirectory(String indexDir, String preloadExtensions) throws IOException {
+        Set<String> extensions = new HashSet<>();
+        for (String extension : preloadExtensions.split(",")) {
+            if (!extension.trim().isEmpty()) {
+                extensions.add(extension.trim());
+            }
+        }
+        if (extensions.isEmpty()) {
+            return FSDirectory.open(Paths.get(indexDir));
+        }
+        MMapDirectory dir = new MMapDirectory(Paths.get(indexDir));
+        dir.setPreload((name, context) -> extensions.contains(IndexFileNames.getExtension(name)));
+        System.out.println("Preloading index files with extensions " + extensions);
+        return dir;
+    }
+
+    // 按顺序重放日志中最后 maxQueries 个检索请求，直到用完时间预算；不经过结果缓存，每个查询都真正执行
+    private void warmUp(Path logPath, int maxQueries, long timeBudgetMs) {
+        // 刚滚动后当前文件可能尚未重新创建，只有 .1
+        if (!Files.exists(logPath) && !Files.exists(Paths.get(logPath + ".1"))) {
+            System.out.println("Warmup skipped, query log " + logPath + " not found");
+            return;
+        }
+        long start = System.nanoTime();
+        long deadline = start + timeBudgetMs * 1_000_000L;
+        int executed = 0;
+        int failed = 0;
+        List<SearchRequest> requests;
+        try {
+            requests = QueryLog.readWithRolled(logPath, maxQueries);
+        } catch (IOException e) {
+            System.err.println("Error reading query log " + logPath + ": " + e.getMessage());
+            return;
+        }
+        // 分别统计前半和后半的平均耗时，反映预热的效果
+        long firstHalfNanos = 0;
+        long secondHalfNanos = 0;
+        try (Lease lease = acquire()) {
+            for (SearchRequest request : requests) {
+                if (System.nanoTime() > deadline) {
+                    break;
+                }
+                long queryStart = System.nanoTime();
+                try {
+                    search(request, lease, null, false, new SearchTimings());
+                } catch (ParseException | RuntimeException e) {
+                    // 日志中的单个查询出错（如 TooManyClauses）只计为失败，不影响启动
+                    failed++;
+                }
+                long elapsed = System.nanoTime() - queryStart;
+                if (executed < requests.size() / 2) {
+                    firstHalfNanos += elapsed;
+                } else {
+                    secondHalfNanos += elapsed;
                 }
+                executed++;
+            }
+        } catch (IOException e) {
+            System.err.println("Error during warmup: " + e.getMessage());
+        }
+        int firstHalf = Math.min(executed, requests.size() / 2);
+        int secondHalf = executed - firstHalf;
+        System.out.printf("Warmup replayed %d/%d queries from %s in %d ms (%d failed, %s)%n",
+                executed, requests.size(), logPath, (System.nanoTime() - start) / 1_000_000, failed,
+                executed < requests.size() ? "time budget exhausted"
+                        : String.format("avg %.2f ms first half, %.2f ms second half",
+                        firstHalf == 0 ? 0 : firstHalfNanos / 1e6 / firstHalf,
+                        secondHalf == 0 ? 0 : secondHalfNanos / 1e6 / secondHalf));
+    }
+
+    // 立即刷新读取器，等待刷新完成后返回当前索引版本
+    public long refresh() throws IOException {
+        searcherManager.maybeRefreshBlocking();
+        try (Lease lease = acquire()) {
+            return readerVersion(lease.searcher);
+        }
+    }
+
+    private static long readerVersion(IndexSearcher searcher) {
+        return ((DirectoryReader) searcher.getIndexReader()).getVersion();
+    }
+
+    public Map<String, Object> cacheStats() {
+        return resultCache.stats();
+    }
+
+    public void clearCache() {
+        resultCache.clear();
+    }
+
+    // 检索指标，以及当前读取器的索引大小、段数和提交代数
+    public Map<String, Object> metrics() throws IOException {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("search", metrics.snapshot());
+        try (Lease lease = acquire()) {
+            snapshot.put("index", indexInfo((DirectoryReader) lease.searcher.getIndexReader()));
+        }
+        snapshot.put("cache", resultCache.stats());
+        return snapshot;
+    }
+
+    // 多 shard 索引没有统一的提交代数，改为列出每个 shard 的信息
+    private static Map<String, Object> indexInfo(DirectoryReader reader) throws IOException {
+        Map<String, Object> index = new LinkedHashMap<>();
+        index.put("version", reader.getVersion());
+        if (!(reader instanceof ShardedDirectoryReader)) {
+            index.put("generation", reader.getIndexCommit().getGeneration());
+        }
+        index.put("segments", reader.leaves().size());
+        index.put("numDocs", reader.numDocs());
+        index.put("deletedDocs", reader.numDeletedDocs());
+        // 按段累加，近实时读取器中尚未提交的段也包含在内
+        long sizeBytes = 0;
+        for (LeafReaderContext leaf : reader.leaves()) {
+            LeafReader leafReader = FilterLeafReader.unwrap(leaf.reader());
+            if (leafReader instanceof SegmentReader) {
+                sizeBytes += ((SegmentReader) leafReader).getSegmentInfo().sizeInBytes();
+            }
+        }
+        index.put("sizeBytes", sizeBytes);
+        if (reader instanceof ShardedDirectoryReader) {
+            ShardedDirectoryReader sharded = (ShardedDirectoryReader) reader;
+            List<Map<String, Object>> shards = new ArrayList<>();
+            for (int i = 0; i < sharded.shardCount(); i++) {
+                shards.add(indexInfo(sharded.shard(i)));
+            }
+            index.put("shards", shards);
+        }
+        return index;
+    }
+
+    // 副本启动时先追上主节点；主节点不可用但本地已有索引时用本地索引启动
+    private String initialReplicaSync(String indexDir) throws IOException {
+        try {
+            if (replicaClient.sync(indexDir) != ReplicaClient.Result.CONFLICT) {
+                return indexDir;
+            }
+            String fresh = syncToNewDir();
+            IndexPointer.write(baseIndexDir, fresh);
+            if (swapDeleteOld && IndexPointer.isVersionDir(baseIndexDir, indexDir)) {
+                IndexPointer.delete(indexDir);
+            }
+            return fresh;
+        } catch (IOException e) {
+            try (Directory dir = FSDirectory.open(Paths.get(indexDir))) {
+                if (!DirectoryReader.indexExists(dir)) {
+                    throw e;
+                }
+            }
+            System.err.println("Error replicating from primary, starting with local index: " + e.getMessage());
+            return indexDir;
+        }
+    }
+
+    // 副本定时拉取主节点的新提交，随后的刷新打开新的读取器；主节点换成另一个索引时同步到新目录后切换
+    private void replicate() {
+        try {
+            if (replicaClient.sync(activeIndexDir) == ReplicaClient.Result.CONFLICT) {
+                String fresh = syncToNewDir();
+                try {
+                    swap(fresh, true);
+                } catch (IOException | RuntimeException e) {
+                    IndexPointer.delete(fresh);
+                    throw e;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error replicating from primary: " + e.getMessage());
+        }
+    }
+
+    private String syncToNewDir() throws IOException {
+        String fresh = IndexPointer.newVersionDir(baseIndexDir);
+        System.out.println("Primary index changed, replicating into " + fresh);
+        try {
+            replicaClient.sync(fresh);
+            return fresh;
+        } catch (IOException | RuntimeException e) {
+            IndexPointer.delete(fresh);
+            throw e;
+        }
+    }
+
+    // 主节点：当前索引最新提交的快照清单
+    public ReplicationManifest replicationManifest() throws IOException {
+        if (replicationPublisher == null) {
+            throw new IllegalStateException("Replication primary is not enabled");
+        }
+        return replicationPublisher.latest(activeIndexDir);
+    }
+
+    // 主节点：快照中的文件，不存在时返回 null
+    public Path replicationFile(long snapshot, String name) {
+        return replicationPublisher == null ? null : replicationPublisher.file(snapshot, name);
+    }
+
+    // 索引指针指向的目录与当前目录不同时切换过去；切换失败时保留当前索引，直到指针再次改变
+    private synchronized void checkIndexPointer() throws IOException {
+        if (nearRealTime) {
+            return;
+        }
+        String target = IndexPointer.resolve(baseIndexDir);
+        if (sameDir(target, activeIndexDir) || target.equals(failedSwapTarget)) {
+            return;
+        }
+        try {
+            swap(target, false);
+        } catch (IOException | RuntimeException e) {
+            failedSwapTarget = target;
+            System.err.println("Error swapping to index " + target + ": " + e.getMessage());
+        }
+    }
+
+    // 按索引指针切换（LuceneIndexer --blue-green 改写指针后可立即调用，不必等待定时检查）
+    public synchronized Map<String, Object> swapToPointer() throws IOException {
+        String target = IndexPointer.resolve(baseIndexDir);
+        if (sameDir(target, activeIndexDir)) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("swapped", false);
+            result.put("active", activeIndexDir);
+            return result;
+        }
+        return swap(target, false);
+    }
+
+    // 原子切换到另一个索引目录：新读取器打开并检查非空后替换管理器，之后的查询都使用新索引，结果缓存清空。
+    // 进行中的查询继续使用旧读取器，全部归还（最多等待 swapDrainTimeoutMs）后关闭；旧目录是蓝绿重建的旁路目录时随后删除。
+    // updatePointer 为 true 时同时改写索引指针，使重启后和定时检查仍使用新目录
+    public synchronized Map<String, Object> swap(String indexDir, boolean updatePointer) throws IOException {
+        if (nearRealTime) {
+            throw new IllegalStateException("Index cannot be swapped while ingest holds the index writer");
+        }
+        if (!Files.isDirectory(Paths.get(indexDir))) {
+            throw new IllegalArgumentException("Index directory not found: " + indexDir);
+        }
+        if (sameDir(indexDir, activeIndexDir)) {
+            throw new IllegalArgumentException("Index directory is already active: " + indexDir);
+        }
+        List<Directory> nextDirectories = new ArrayList<>();
+        SearcherManager next = openSearcherManager(indexDir, nextDirectories);
+        SpellSuggester nextSpellSuggester;
+        int numDocs;
+        long version;
+        IndexSearcher probe = next.acquire();
+        try {
+            numDocs = probe.getIndexReader().numDocs();
+            if (numDocs == 0) {
+                throw new IllegalStateException("Index " + indexDir + " is empty");
+            }
+            version = readerVersion(probe);
+            nextSpellSuggester = new SpellSuggester(spellcheckMode, indexDir, probe.getIndexReader());
+        } catch (IOException | RuntimeException e) {
+            next.release(probe);
+            next.close();
+            IOUtils.closeWhileHandlingException(nextDirectories);
+            throw e;
+        }
+        next.release(probe);
+        if (updatePointer) {
+            IndexPointer.write(baseIndexDir, indexDir);
+        }
+
+        SearcherManager previous = searcherManager;
+        SearcherLifetimeManager previousLifetimeManager = lifetimeManager;
+        List<Directory> previousDirectories = directories;
+        SpellSuggester previousSpellSuggester = spellSuggester;
+        String previousDir = activeIndexDir;
+        // 持有旧读取器的一个引用，引用计数回到 1 时说明进行中的查询都已归还
+        IndexSearcher draining = previous.acquire();
+        // 两个目录的读取器版本互不相关，新的纪元使旧索引的缓存条目和游标失效，旧读取器上完成的查询也不会写入缓存
+        epoch++;
+        searcherManager = next;
+        directories = nextDirectories;
+        spellSuggester = nextSpellSuggester;
+        activeIndexDir = indexDir;
+        lifetimeManager = new SearcherLifetimeManager();
+        epoch++;
+        previous.close();
+        previousLifetimeManager.close();
+        failedSwapTarget = null;
+        System.out.println("Swapped index from " + previousDir + " to " + indexDir + " (" + numDocs + " docs)");
+
+        boolean deleteOld = swapDeleteOld && IndexPointer.isVersionDir(baseIndexDir, previousDir);
+        Thread drainer = new Thread(() -> drain(previous, draining, previousDirectories, previousSpellSuggester,
+                previousDir, deleteOld), "index-swap-drain");
+        drainer.setDaemon(true);
+        drainer.start();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("swapped", true);
+        result.put("previous", previousDir);
+        result.put("active", indexDir);
+        result.put("version", version);
+        result.put("numDocs", numDocs);
+        return result;
+    }
+
+    // 等待旧读取器上进行中的查询结束，然后释放旧读取器、关闭其索引目录和拼写检查器（未替换时为 null），deleteOld 时删除旧的旁路目录
+    private void drain(SearcherManager previous, IndexSearcher draining, List<Directory> previousDirectories,
+                       SpellSuggester previousSpellSuggester, String previousDir, boolean deleteOld) {
+        long start = System.nanoTime();
+        long deadline = start + swapDrainTimeoutMs * 1_000_000L;
+        try {
+            while (draining.getIndexReader().getRefCount() > 1 && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        boolean drained = draining.getIndexReader().getRefCount() <= 1;
+        try {
+            previous.release(draining);
+            // 超时后仍在使用的读取器已打开所需的文件，关闭目录不影响其继续读取
+            IOUtils.close(previousDirectories);
+            if (previousSpellSuggester != null) {
+                previousSpellSuggester.close();
+            }
+            System.out.printf("Old index %s %s after %d ms%n", previousDir,
+                    drained ? "drained" : "still in use, released", (System.nanoTime() - start) / 1_000_000);
+            if (deleteOld) {
+                IndexPointer.delete(previousDir);
+                System.out.println("Deleted old index " + previousDir);
+            }
+        } catch (IOException e) {
+            System.err.println("Error cleaning up old index " + previousDir + ": " + e.getMessage());
+        }
+    }
+
+    private static boolean sameDir(String a, String b) {
+        return Paths.get(a).toAbsolutePath().normalize().equals(Paths.get(b).toAbsolutePath().normalize());
+    }
+
+    public String activeIndexDir() {
+        return activeIndexDir;
+    }
+
+    // 改为从 IndexWriter 打开近实时读取器：写入器中未提交的修改在下一次刷新后即可被检索。
+    // 与 swap 互斥：切换进行中时等待其完成，写入器打开的目录必须是切换后生效的目录
+    public synchronized void useWriter(IndexWriter writer) throws IOException {
+        if (replicaClient != null) {
+            throw new IllegalStateException("Ingest cannot run on a replica, the index is replicated from the primary");
+        }
+        Directory writerDir = FilterDirectory.unwrap(writer.getDirectory());
+        if (writerDir instanceof FSDirectory && !sameDir(((FSDirectory) writerDir).getDirectory().toString(), activeIndexDir)) {
+            throw new IllegalStateException("Index writer is open on " + ((FSDirectory) writerDir).getDirectory()
+                    + " but the active index is " + activeIndexDir);
+        }
+        nearRealTime = true;
+        SearcherManager old = searcherManager;
+        SearcherLifetimeManager oldLifetimeManager = lifetimeManager;
+        List<Directory> oldDirectories = directories;
+        SearcherManager next = new SearcherManager(writer, searcherFactory);
+        IndexSearcher draining = old.acquire();
+        // 与 swap 相同，替换读取器前后各加 1，替换期间获取的读取器不会计入任一纪元
+        epoch++;
+        searcherManager = next;
+        // 写入器的目录由 IngestService 负责关闭
+        directories = new ArrayList<>();
+        lifetimeManager = new SearcherLifetimeManager();
+        epoch++;
+        old.close();
+        oldLifetimeManager.close();
+        // 旧读取器在进行中的查询释放后才真正关闭，随后关闭其索引目录
+        Thread drainer = new Thread(() -> drain(old, draining, oldDirectories, null, activeIndexDir, false), "index-swap-drain");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    // 从当前管理器获取 IndexSearcher 及其所属的纪元，使用完毕后必须通过 close 归还给同一个管理器
+    private Lease acquire() throws IOException {
+        while (true) {
+            long currentEpoch = epoch;
+            SearcherManager manager = searcherManager;
+            IndexSearcher searcher;
+            try {
+                searcher = manager.acquire();
+            } catch (AlreadyClosedException e) {
+                // 管理器恰好被替换，重新读取最新的管理器
+                if (manager == searcherManager) {
+                    throw e;
+                }
+                continue;
+            }
+            if (currentEpoch % 2 == 0 && currentEpoch == epoch) {
+                return new Lease(manager, searcher, currentEpoch);
+            }
+            // 获取期间正在切换索引目录，无法确定读取器属于哪个纪元
+            manager.release(searcher);
+            Thread.yield();
+        }
+    }
+
+    // 获取游标对应版本的读取器；该版本已被清理或游标来自切换前的索引时退回当前读取器，此时翻页结果可能有少量重复或遗漏
+    private Lease acquire(SearchCursor cursor) throws IOException {
+        if (cursor != null) {
+            long currentEpoch = epoch;
+            SearcherLifetimeManager manager = lifetimeManager;
+            IndexSearcher searcher = cursor.epoch == currentEpoch ? manager.acquire(cursor.version) : null;
+            if (searcher != null) {
+                if (currentEpoch == epoch) {
+                    return new Lease(manager, searcher, currentEpoch);
+                }
+                manager.release(searcher);
+            }
+        }
+        return acquire();
+    }
+
+    // 记录发出游标的读取器，并清理被替换超过 cursorTtlSeconds 的旧读取器
+    private void record(IndexSearcher searcher, long searcherEpoch) throws IOException {
+        long currentEpoch = epoch;
+        SearcherLifetimeManager manager = lifetimeManager;
+        if (currentEpoch != searcherEpoch || epoch != currentEpoch) {
+            // 已切换到另一个索引，不能记录到新索引的管理器中，游标在下一页退回当前读取器
+            return;
+        }
+        long version;
+        try {
+            version = manager.record(searcher);
+        } catch (IllegalArgumentException e) {
+            // 同一版本已由另一个 IndexSearcher 实例记录（如切换到近实时读取器后），内容相同，继续使用已记录的实例
+            return;
+        } catch (AlreadyClosedException e) {
+            // 恰好切换了索引目录，旧索引的游标在下一页退回当前读取器
+            return;
+        }
+        synchronized (manager) {
+            if (version != lastRecordedVersion) {
+                lastRecordedVersion = version;
+                manager.prune(new SearcherLifetimeManager.PruneByAge(cursorTtlSeconds));
+            }
+        }
+    }
+
+    static final class Lease implements AutoCloseable {
+        final SearcherManager manager;
+        final SearcherLifetimeManager lifetimeManager;
+        final IndexSearcher searcher;
+        final long epoch;
+
+        Lease(SearcherManager manager, IndexSearcher searcher, long epoch) {
+            this.manager = manager;
+            this.lifetimeManager = null;
+            this.searcher = searcher;
+            this.epoch = epoch;
+        }
+
+        Lease(SearcherLifetimeManager lifetimeManager, IndexSearcher searcher, long epoch) {
+            this.manager = null;
+            this.lifetimeManager = lifetimeManager;
+            this.searcher = searcher;
+            this.epoch = epoch;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (manager != null) {
+                manager.release(searcher);
             } else {
-                for (ScoreDoc scoreDoc : results.scoreDocs) {
-                    Document doc = searcher.doc(scoreDoc.doc);
-                    SearchResult searchResult = new SearchResult();
-
-                    String text = doc.get(field);
-                    TokenStream tokenStream = TokenSources.getAnyTokenStream(reader, scoreDoc.doc, field, analyzer);
-                    String highlightedText = highlighter.getBestFragment(tokenStream, text);
-                    if (highlightedText == null) {
-                        highlightedText = text;
-                    }
+                lifetimeManager.release(searcher);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+        failQueued(batchExecutor.shutdownNow());
+        if (searchExecutor != null) {
+            failQueued(searchExecutor.shutdownNow());
+        }
+        if (admissionTimer != null) {
+            admissionTimer.shutdownNow();
+        }
+        if (queryLog != null) {
+            queryLog.close();
+        }
+        if (slowQueryLog != null) {
+            slowQueryLog.close();
+        }
+        lifetimeManager.close();
+        searcherManager.close();
+        IOUtils.close(directories);
+        searcherFactory.close();
+        spellSuggester.close();
+    }
+
+    // 线程池关闭时仍在排队的任务不会再执行，结束它们的结果，等待结果的调用方不会一直阻塞
+    private static void failQueued(List<Runnable> queued) {
+        for (Runnable task : queued) {
+            if (task instanceof AdmittedSearch) {
+                ((AdmittedSearch) task).result.completeExceptionally(
+                        new SearchRejectedException("Search service is shutting down", false));
+            } else if (task instanceof Future) {
+                ((Future<?>) task).cancel(false);
+            }
+        }
+    }
 
-                    searchResult.setHighlightedField(highlightedText);
-                    searchResult.setTitle(doc.get("title"));
-                    searchResult.setAuthors(doc.get("authors"));
-                    searchResult.setDate(doc.get("date"));
-                    searchResult.setAffiliation(doc.get("affiliation"));
-                    searchResult.setAddress(doc.get("address"));
-                    searchResult.setPdfPath(doc.get("pdfPath"));
-                    // searchResult.setFulltext(doc.get("fulltext"));
+    // 多字段检索的字段名：在配置的所有字段上同时打分
+    public static final String ALL_FIELDS = "all";
 
-                    resultsList.add(searchResult);
+    // 检索结果中可返回的存储字段
+    public static final List<String> RESULT_FIELDS = Arrays.asList("title", "authors", "date", "affiliation", "address", "pdfPath", "fulltext");
+    // 默认返回除全文外的所有字段
+    public static final Set<String> DEFAULT_RESULT_FIELDS =
+            Collections.unmodifiableSet(new TreeSet<>(RESULT_FIELDS.subList(0, RESULT_FIELDS.size() - 1)));
+
+    // 解析逗号分隔的字段投影，为空时返回默认字段
+    public static Set<String> parseFields(String fields) {
+        if (fields == null || fields.trim().isEmpty()) {
+            return DEFAULT_RESULT_FIELDS;
+        }
+        Set<String> selected = new TreeSet<>();
+        for (String name : fields.split(",")) {
+            name = name.trim();
+            if (!RESULT_FIELDS.contains(name)) {
+                throw new IllegalArgumentException("Unknown result field: " + name);
+            }
+            selected.add(name);
+        }
+        return selected;
+    }
+
+    // 可统计的分面
+    public static final List<String> FACETS = Arrays.asList("year", "affiliation");
+
+    // 解析逗号分隔的分面名，为空时返回空集合
+    public static Set<String> parseFacets(String facets) {
+        Set<String> selected = new LinkedHashSet<>();
+        if (facets == null || facets.trim().isEmpty()) {
+            return selected;
+        }
+        for (String name : facets.split(",")) {
+            name = name.trim();
+            if (!FACETS.contains(name)) {
+                throw new IllegalArgumentException("Unknown facet: " + name);
+            }
+            selected.add(name);
+        }
+        return selected;
+    }
+
+    // 原接口：返回第一页的 10 条结果
+    public List<SearchResult> search(String field, String queryStr) {
+        SearchRequest request = new SearchRequest();
+        request.setField(field);
+        request.setQuery(queryStr);
+        return search(request).getResults();
+    }
+
+    // 分页检索：cursor 为上一页返回的 nextCursor，第一页为空。在调用线程上等待 searchAsync 的结果
+    public SearchPage search(SearchRequest request) {
+        try {
+            return searchAsync(request).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            // 检索线程上的检索不受影响，受检索时限约束会自行结束
+            Thread.currentThread().interrupt();
+            throw new SearchRejectedException("Interrupted while waiting for search", false);
+        }
+    }
+
+    // 异步分页检索：开启准入控制时提交到检索线程池后立即返回，调用线程不等待检索完成。
+    // 排队已满，或排队超过 admissionQueueTimeoutMs 仍未开始时，以 SearchRejectedException 结束；
+    // 未开启准入控制时在调用线程上检索，返回已完成的结果
+    public CompletableFuture<SearchPage> searchAsync(SearchRequest request) {
+        long received = System.nanoTime();
+        CompletableFuture<SearchPage> result = new CompletableFuture<>();
+        if (searchExecutor == null) {
+            try {
+                result.complete(execute(request, received));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+            return result;
+        }
+        AdmittedSearch task = new AdmittedSearch(request, received, result);
+        try {
+            searchExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            metrics.recordRejected(true);
+            result.completeExceptionally(new SearchRejectedException("Search queue is full", true));
+            return result;
+        }
+        if (admissionTimer != null) {
+            // 到时仍在排队则移出队列；已经开始执行的检索受检索时限约束
+            ScheduledFuture<?> timeout = admissionTimer.schedule(() -> {
+                if (searchExecutor.remove(task)) {
+                    metrics.recordRejected(false);
+                    result.completeExceptionally(new SearchRejectedException("Search waited too long in queue", false));
                 }
+            }, admissionQueueTimeoutNanos, TimeUnit.NANOSECONDS);
+            result.whenComplete((page, e) -> timeout.cancel(false));
+        }
+        return result;
+    }
+
+    // 排入检索线程池的单个检索；关闭时仍在排队的检索由 close 以 SearchRejectedException 结束
+    private final class AdmittedSearch implements Runnable {
+        private final SearchRequest request;
+        private final long received;
+        private final CompletableFuture<SearchPage> result;
+
+        AdmittedSearch(SearchRequest request, long received, CompletableFuture<SearchPage> result) {
+            this.request = request;
+            this.received = received;
+            this.result = result;
+        }
+
+        @Override
+        public void run() {
+            try {
+                result.complete(execute(request, received));
+            } catch (RuntimeException | Error e) {
+                result.completeExceptionally(e);
             }
+        }
+    }
+
+    private SearchPage execute(SearchRequest request, long received) {
+        SearchCursor after = decodeCursor(request);
+        if (queryLog != null) {
+            queryLog.record(request);
+        }
+        SearchTimings timings = new SearchTimings();
+        timings.deadline = deadline(request, received);
+        try (Lease lease = acquire(after)) {
+            SearchPage page = search(request, lease, after, true, timings);
+            metrics.record(timings);
+            logIfSlow(request, lease.searcher, timings);
+            return page;
         } catch (ParseException e) {
             System.err.println("Error parsing query: " + e.getMessage());
-        } catch (IOException | InvalidTokenOffsetsException e) {
+        } catch (IOException e) {
             System.err.println("Error executing search: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            metrics.recordError();
+            throw e;
         }
-        return resultsList;
+        metrics.recordError();
+        SearchPage empty = new SearchPage();
+        empty.setResults(new ArrayList<>());
+        empty.setTotalHitsExact(true);
+        return empty;
     }
-}
 
+    // 请求的截止时间：配置的检索时限与请求的 timeoutMs 取较短者，都不限时为 0
+    private long deadline(SearchRequest request, long received) {
+        long timeout = searchTimeoutNanos;
+        if (request.getTimeoutMs() != null && request.getTimeoutMs() > 0) {
+            long requested = request.getTimeoutMs() * 1_000_000L;
+            timeout = timeout == 0 ? requested : Math.min(timeout, requested);
+        }
+        return timeout == 0 ? 0 : received + timeout;
+    }
+
+    // 批量检索：所有请求在同一时间点的读取器上并发执行，按请求顺序返回，单个请求失败不影响其他请求；
+    // 每个请求的检索时限都从收到批量请求时开始计算。
+    // 开启准入控制时各项在检索线程池中执行，与单个检索共用并发数和排队长度，不能全部排入队列时整批拒绝
+    public List<BatchSearchResult> searchBatch(List<SearchRequest> requests) throws IOException {
+        long received = System.nanoTime();
+        if (requests.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Too many requests in batch: " + requests.size() + " > " + maxBatchSize);
+        }
+        ThreadPoolExecutor executor = searchExecutor != null ? searchExecutor : batchExecutor;
+        if (searchExecutor != null) {
+            int capacity = searchExecutor.getMaximumPoolSize() + searchExecutor.getQueue().size()
+                    + searchExecutor.getQueue().remainingCapacity();
+            if (requests.size() > capacity) {
+                throw new IllegalArgumentException("Too many requests in batch: " + requests.size()
+                        + " > " + capacity + " (max concurrent searches + admission queue size)");
+            }
+        }
+        List<BatchSearchResult> results = new ArrayList<>();
+        try (Lease lease = acquire()) {
+            List<Future<SearchPage>> futures = new ArrayList<>();
+            try {
+                for (SearchRequest request : requests) {
+                    futures.add(executor.submit(() -> searchInBatch(request, lease, received)));
+                }
+            } catch (RejectedExecutionException e) {
+                // 撤回已排队的项，已开始执行的项结束后才归还读取器
+                for (Future<SearchPage> future : futures) {
+                    future.cancel(false);
+                }
+                executor.purge();
+                for (Future<SearchPage> future : futures) {
+                    try {
+                        future.get();
+                    } catch (CancellationException | ExecutionException ignored) {
+                        // 整批已被拒绝，不再关心各项的结果
+                    } catch (InterruptedException interrupted) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+                metrics.recordRejected(true);
+                throw new SearchRejectedException("Search queue is full, batch of " + requests.size() + " rejected", true);
+            }
+            // 全部完成后才归还读取器
+            for (Future<SearchPage> future : futures) {
+                BatchSearchResult result = new BatchSearchResult();
+                try {
+                    result.setPage(future.get());
+                } catch (CancellationException e) {
+                    // 关闭时仍在排队的项被撤回
+                    result.setError("Search service is shutting down");
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    result.setError(cause instanceof ParseException || cause instanceof IllegalArgumentException
+                            ? cause.getMessage() : cause.toString());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for batch search", e);
+                }
+                results.add(result);
+            }
+        }
+        return results;
+    }
 
-class PorterStemAnalyzer extends Analyzer {
-    @Override
-    protected TokenStreamComponents createComponents(String fieldName) {
-        // 使用标准分词器
-        Tokenizer source = new StandardTokenizer();
-        // 使用小写过滤器
-        TokenStream filter = new LowerCaseFilter(source);
-        // 添加停用词过滤器
-        filter = new StopFilter(filter, EnglishAnalyzer.getDefaultStopSet());
-        // 使用 PorterStemFilter 进行词干化
-        filter = new PorterStemFilter(filter);
-        return new TokenStreamComponents(source, filter);
-    }
-}
\ No newline at end of file
+    // 带游标的请求使用游标对应版本的读取器，其余请求共用批量检索的读取器
+    private SearchPage searchInBatch(SearchRequest request, Lease shared, long received)
+            throws ParseException, IOException {
+        SearchCursor after = decodeCursor(request);
+        if (queryLog != null) {
+            queryLog.record(request);
+        }
+        SearchTimings timings = new SearchTimings();
+        timings.deadline = deadline(request, received);
+        SearchPage page;
+        try {
+            if (after == null || after.epoch == shared.epoch && after.version == readerVersion(shared.searcher)) {
+                page = search(request, shared, after, true, timings);
+                logIfSlow(request, shared.searcher, timings);
+            } else {
+                try (Lease lease = acquire(after)) {
+                    page = search(request, lease, after, true, timings);
+                    logIfSlow(request, lease.searcher, timings);
+                }
+            }
+        } catch (ParseException | IOException | RuntimeException e) {
+            metrics.recordError();
+            throw e;
+        }
+        metrics.record(timings);
+        return page;
+    }
+
+    // 超过阈值的检索放入慢查询日志；需要打分明细时在仍持有读取器时计算，只针对排名第一的命中
+    private void logIfSlow(SearchRequest request, IndexSearcher searcher, SearchTimings timings) {
+        if (slowQueryLog == null || timings.totalNanos < slowQueryThresholdNanos || timings.cacheHit) {
+            return;
+        }
+        SlowQuery entry = new SlowQuery();
+        entry.setTimestamp(Instant.now().toString());
+        entry.setField(request.getField());
+        entry.setQuery(request.getQuery().trim().replaceAll("\\s+", " "));
+        entry.setParsedQuery(timings.query == null ? null : timings.query.toString());
+        entry.setTotalMs(timings.totalNanos / 1e6);
+        Map<String, Double> phases = new LinkedHashMap<>();
+        for (SearchTimings.Phase phase : SearchTimings.Phase.values()) {
+            if (timings.nanos(phase) > 0) {
+                phases.put(SearchMetrics.camelCase(phase.name()), timings.nanos(phase) / 1e6);
+            }
+        }
+        entry.setPhasesMs(phases);
+        entry.setHits(timings.hits);
+        entry.setSegments(timings.segments);
+        entry.setReaderVersion(readerVersion(searcher));
+        if (slowQueryExplain && timings.query != null && timings.topDoc >= 0) {
+            try {
+                entry.setExplanation(searcher.explain(timings.query, timings.topDoc).toString());
+            } catch (IOException e) {
+                entry.setExplanation("Error explaining top hit: " + e.getMessage());
+            }
+        }
+        slowQueryLog.offer(entry);
+    }
+
+    // 最近的慢查询（最新的在前）以及因队列已满丢弃的条数
+    public Map<String, Object> slowQueries() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("enabled", slowQueryLog != null);
+        response.put("thresholdMs", slowQueryThresholdNanos / 1_000_000);
+        response.put("dropped", slowQueryLog == null ? 0 : slowQueryLog.getDropped());
+        response.put("entries", slowQueryLog == null ? Collections.emptyList() : slowQueryLog.recent());
+        return response;
+    }
+
+    private static SearchCursor decodeCursor(SearchRequest request) {
+        String cursor = request.getCursor();
+        return cursor == null || cursor.isEmpty() ? null : SearchCursor.decode(cursor);
+    }
+
+    // 在给定读取器上执行一个检索请求，useCache 时优先返回缓存的结果
+    private SearchPage search(SearchRequest request, Lease lease, SearchCursor after, boolean useCache,
+                              SearchTimings timings) throws ParseException, IOException {
+        IndexSearcher searcher = lease.searcher;
+        long start = System.nanoTime();
+        if (request.getField() == null || request.getQuery() == null) {
+            throw new IllegalArgumentException("Both field and query are required");
+        }
+        int size = Math.max(1, Math.min(request.getSize(), maxPageSize));
+        Set<String> fields = parseFields(request.getFields());
+        Set<String> facets = parseFacets(request.getFacets());
+        int facetCount = Math.max(1, Math.min(request.getFacetCount(), 100));
+        // 相同查询在同一纪元、同一读取器版本下直接返回缓存的结果
+        long version = readerVersion(searcher);
+        String cacheKey = QueryResultCache.key(request.getField(), request.getQuery(), size + ":" + fields + ":"
+                + (after == null ? "" : request.getCursor())
+                + ":" + request.getYearFrom() + "-" + request.getYearTo() + ":" + facets + ":" + facetCount);
+        SearchPage cached = useCache ? resultCache.get(cacheKey, lease.epoch, version) : null;
+        if (cached != null) {
+            timings.cacheHit = true;
+            timings.totalNanos = System.nanoTime() - start;
+            return cached;
+        }
+        SearchPage page = search(searcher, lease.epoch, request.getField(), request.getQuery(), size, after, fields,
+                request.getYearFrom(), request.getYearTo(), facets, facetCount, timings);
+        // 超时的部分结果不缓存
+        if (useCache && !page.isPartial()) {
+            resultCache.put(cacheKey, lease.epoch, version, page);
+        }
+        timings.totalNanos = System.nanoTime() - start;
+        return page;
+    }
+
+    private SearchPage search(IndexSearcher searcher, long searcherEpoch, String field, String queryStr, int size,
+                              SearchCursor after, Set<String> fields, Integer yearFrom, Integer yearTo,
+                              Set<String> facets, int facetCount, SearchTimings timings) throws ParseException, IOException {
+        long phaseStart = System.nanoTime();
+        List<SearchResult> resultsList = new ArrayList<>();
+        boolean allFieldsMode = ALL_FIELDS.equals(field);
+        QueryParser parser = allFieldsMode ? new DisjunctionMaxQueryParser(allFields, analyzer, fieldBoosts, tieBreaker)
+                : new QueryParser(field, analyzer);
+        Query query = parser.parse(queryStr);
+        Query filtered = query;
+        if (yearFrom != null || yearTo != null) {
+            // 年份范围作为过滤条件，不影响打分；由 Lucene 根据代价选择使用点索引还是逐个检查 DocValues
+            int from = yearFrom == null ? Integer.MIN_VALUE : yearFrom;
+            int to = yearTo == null ? Integer.MAX_VALUE : yearTo;
+            Query range = new IndexOrDocValuesQuery(IntPoint.newRangeQuery(LuceneIndexer.YEAR_FIELD, from, to),
+                    NumericDocValuesField.newSlowRangeQuery(LuceneIndexer.YEAR_FIELD, from, to));
+            filtered = new BooleanQuery.Builder()
+                    .add(query, BooleanClause.Occur.MUST)
+                    .add(range, BooleanClause.Occur.FILTER)
+                    .build();
+        }
+
+        phaseStart = timings.lap(SearchTimings.Phase.PARSE, phaseStart);
+        timings.query = filtered;
+
+        // 只精确统计前 totalHitsThreshold 个命中，超过后可以跳过无法进入前 size 名的文档块
+        TopScoreDocCollectorManager topDocsManager =
+                new TopScoreDocCollectorManager(size, after == null ? null : after.after, totalHitsThreshold);
+        TopDocs results;
+        SearchPage page = new SearchPage();
+        // 有截止时间时在带时限的 IndexSearcher 上检索，词项展开和打分过程都会检查时限，收集器的检查作为兜底；
+        // 高亮、拼写建议和游标仍使用原来的 IndexSearcher
+        IndexSearcher timed = timings.deadline == 0 ? searcher
+                : searcherFactory.newTimedSearcher(searcher, timings::pastDeadline);
+        try {
+            if (facets.isEmpty()) {
+                results = timed.search(filtered, withDeadline(topDocsManager, timings));
+            } else {
+                // 分面与前 N 个命中在同一次遍历中收集
+                Object[] collected = timed.search(filtered, withDeadline(
+                        new MultiCollectorManager(topDocsManager, facetsCollectorManager(searcher, timed)), timings));
+                results = (TopDocs) collected[0];
+                page.setFacets(countFacets(searcher, (FacetsCollector) collected[1], facets, facetCount));
+            }
+        } catch (ExitableDirectoryReader.ExitingReaderException e) {
+            // 读取索引时超时，已收集的命中随异常丢失，返回空的部分结果
+            timings.timedOut = true;
+            results = new TopDocs(new TotalHits(0, TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO), new ScoreDoc[0]);
+        }
+
+        phaseStart = timings.lap(SearchTimings.Phase.SEARCH, phaseStart);
+        timings.hits = results.totalHits.value;
+        timings.segments = searcher.getIndexReader().leaves().size();
+        if (results.scoreDocs.length > 0) {
+            timings.topDoc = results.scoreDocs[0].doc;
+        }
+
+        // 收集提前停止时未检索的段可能有得分更高的文档，命中数只是下界，也不发出游标，避免翻页时遗漏
+        boolean collectionTimedOut = timings.timedOut;
+        page.setTotalHits(results.totalHits.value);
+        page.setTotalHitsExact(!collectionTimedOut && results.totalHits.relation == TotalHits.Relation.EQUAL_TO);
+        if (results.scoreDocs.length == size && !collectionTimedOut) {
+            record(searcher, searcherEpoch);
+            ScoreDoc last = results.scoreDocs[results.scoreDocs.length - 1];
+            page.setNextCursor(new SearchCursor(searcherEpoch, readerVersion(searcher), last).encode());
+        }
+
+        if (results.scoreDocs.length == 0) {
+            // 零命中时给出拼写建议；翻页到末尾或被年份范围过滤掉时直接返回空列表
+            if (after == null && filtered == query && !timings.pastDeadline()) {
+                // 多字段检索时使用词汇最全的全文字段给出建议
+                String suggestField = allFieldsMode ? "fulltext" : field;
+                String[] suggestions = spellSuggester.suggest(searcher.getIndexReader(), suggestField, queryStr, 5);
+                for (String suggestion : suggestions) {
+                    SearchResult suggestionResult = new SearchResult();
+                    suggestionResult.setSuggestion(suggestion);
+                    resultsList.add(suggestionResult);
+                }
+                timings.lap(SearchTimings.Phase.SPELLCHECK, phaseStart);
+            }
+        } else {
+            // 一次性为整页命中计算高亮片段；已超时则不再高亮，全部回退到原文
+            String[] fragments = timings.pastDeadline() ? new String[results.scoreDocs.length] : allFieldsMode
+                    ? SearchHighlighter.highlight(highlighterMode, searcher, analyzer, allFieldsHighlightOrder, query, results, timings.deadline)
+                    : SearchHighlighter.highlight(highlighterMode, searcher, analyzer, field, query, results, timings.deadline);
+            // 逐个高亮时可能在中途停止
+            timings.pastDeadline();
+            phaseStart = timings.lap(SearchTimings.Phase.HIGHLIGHT, phaseStart);
+            // 没有高亮片段时回退到原文；多字段检索时回退到标题
+            String fallbackField = allFieldsMode ? "title" : field;
+            // 只解码需要返回的存储字段，不再为每个命中解压全文
+            StoredFields storedFields = searcher.storedFields();
+            for (int i = 0; i < results.scoreDocs.length; i++) {
+                ScoreDoc scoreDoc = results.scoreDocs[i];
+                Document doc = loadFields(storedFields, scoreDoc.doc, fields);
+                SearchResult searchResult = new SearchResult();
+
+                String highlightedText = fragments[i];
+                if (highlightedText == null) {
+                    // 没有高亮片段时回退到原文，只有这种情况才需要读取检索字段
+                    highlightedText = fields.contains(fallbackField) ? doc.get(fallbackField)
+                            : loadFields(storedFields, scoreDoc.doc, Collections.singleton(fallbackField)).get(fallbackField);
+                }
+
+                searchResult.setHighlightedField(highlightedText);
+                searchResult.setTitle(doc.get("title"));
+                searchResult.setAuthors(doc.get("authors"));
+                searchResult.setDate(doc.get("date"));
+                searchResult.setAffiliation(doc.get("affiliation"));
+                searchResult.setAddress(doc.get("address"));
+                searchResult.setPdfPath(doc.get("pdfPath"));
+                searchResult.setFulltext(doc.get("fulltext"));
+
+                resultsList.add(searchResult);
+            }
+            timings.lap(SearchTimings.Phase.STORED_FIELDS, phaseStart);
+        }
+        page.setResults(Collections.unmodifiableList(resultsList));
+        page.setPartial(timings.timedOut);
+        return page;
+    }
+
+    // 有截止时间时包装收集器，超时后停止收集
+    private static <C extends Collector, T> CollectorManager<?, T> withDeadline(CollectorManager<C, T> manager,
+                                                                              SearchTimings timings) {
+        return timings.deadline == 0 ? manager : new DeadlineCollectorManager<>(manager, timings);
+    }
+
+    // 在带时限的 IndexSearcher 上收集分面时，按原读取器的叶子记录命中，与按原读取器缓存的机构分面状态一致
+    private static FacetsCollectorManager facetsCollectorManager(IndexSearcher searcher, IndexSearcher timed) {
+        if (timed == searcher) {
+            return new FacetsCollectorManager();
+        }
+        List<LeafReaderContext> leaves = searcher.getIndexReader().leaves();
+        return new FacetsCollectorManager() {
+            @Override
+            public FacetsCollector newCollector() {
+                return new FacetsCollector() {
+                    @Override
+                    protected void doSetNextReader(LeafReaderContext context) throws IOException {
+                        super.doSetNextReader(leaves.get(context.ord));
+                    }
+                };
+            }
+        };
+    }
+
+    // 统计分面：年份按年份升序返回全部取值，机构按命中数返回前 facetCount 个
+    private Map<String, Map<String, Integer>> countFacets(IndexSearcher searcher, FacetsCollector facetsCollector,
+                                                          Set<String> facets, int facetCount) throws IOException {
+        Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+        for (String facet : facets) {
+            FacetResult result;
+            if (facet.equals("year")) {
+                result = new LongValueFacetCounts(LuceneIndexer.YEAR_FIELD, facetsCollector).getAllChildrenSortByValue();
+            } else {
+                result = new StringValueFacetCounts(affiliationState(searcher.getIndexReader()), facetsCollector)
+                        .getTopChildren(facetCount, LuceneIndexer.AFFILIATION_FACET_FIELD);
+            }
+            Map<String, Integer> values = new LinkedHashMap<>();
+            if (result != null) {
+                for (LabelAndValue labelAndValue : result.labelValues) {
+                    values.put(labelAndValue.label, labelAndValue.value.intValue());
+                }
+            }
+            counts.put(facet, values);
+        }
+        return counts;
+    }
+
+    // 机构分面的全局序号映射，每个读取器只构建一次
+    private StringDocValuesReaderState affiliationState(IndexReader reader) throws IOException {
+        AffiliationState state = affiliationState;
+        if (state == null || state.reader != reader) {
+            state = new AffiliationState(reader, new StringDocValuesReaderState(reader, LuceneIndexer.AFFILIATION_FACET_FIELD));
+            affiliationState = state;
+        }
+        return state.state;
+    }
+
+    private static final class AffiliationState {
+        final IndexReader reader;
+        final StringDocValuesReaderState state;
+
+        AffiliationState(IndexReader reader, StringDocValuesReaderState state) {
+            this.reader = reader;
+            this.state = state;
+        }
+    }
+
+    // 多字段检索的高亮顺序：优先取全文中的上下文片段，其次按配置顺序取其他字段
+    private static String[] highlightOrder(String[] fields) {
+        List<String> order = new ArrayList<>(Arrays.asList(fields));
+        if (order.remove("fulltext")) {
+            order.add(0, "fulltext");
+        }
+        return order.toArray(new String[0]);
+    }
+
+    private static Document loadFields(StoredFields storedFields, int doc, Set<String> fields) throws IOException {
+        SelectiveFieldVisitor visitor = new SelectiveFieldVisitor(fields);
+        storedFields.document(doc, visitor);
+        return visitor.getDocument();
+    }
+}
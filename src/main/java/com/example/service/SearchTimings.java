@@ -0,0 +1,47 @@
+package com.example.service;
+
+import org.apache.lucene.search.Query;
+
+// 一次检索各阶段的耗时（纳秒）以及命中数、段数，由 SearchService 填写后汇总到 SearchMetrics，超过阈值时写入慢查询日志。
+// 同时携带该请求的截止时间，收集、高亮和拼写建议据此提前停止。
+final class SearchTimings {
+
+    enum Phase {
+        PARSE,
+        SEARCH,
+        STORED_FIELDS,
+        HIGHLIGHT,
+        SPELLCHECK
+    }
+
+    final long[] phaseNanos = new long[Phase.values().length];
+    long totalNanos;
+    long hits;
+    int segments;
+    boolean cacheHit;
+    // 实际执行的查询和排名第一的命中（没有命中时为 -1），供慢查询日志使用
+    Query query;
+    int topDoc = -1;
+    // 截止时间（System.nanoTime），0 表示不限；超过后提前停止并返回部分结果，此时 timedOut 为 true（可能由并行分片线程设置）
+    long deadline;
+    volatile boolean timedOut;
+
+    // 记录从 start 到现在的耗时，返回当前时间，作为下一阶段的开始
+    long lap(Phase phase, long start) {
+        long now = System.nanoTime();
+        phaseNanos[phase.ordinal()] += now - start;
+        return now;
+    }
+
+    // 超过截止时间时记为已超时，返回 true，调用方应停止后续工作
+    boolean pastDeadline() {
+        if (deadline != 0 && System.nanoTime() - deadline > 0) {
+            timedOut = true;
+        }
+        return timedOut;
+    }
+
+    long nanos(Phase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.service;
+
+import org.apache.lucene.document.DocumentStoredFieldVisitor;
+import org.apache.lucene.index.FieldInfo;
+
+import java.util.HashSet;
+import java.util.Set;
+
+// 只加载指定存储字段的访问器，所需字段都读到后立即停止，不再解码文档其余部分。
+// 索引器把 fulltext 放在文档最后，因此只取元数据时不会解压全文。
+// 每个实例只能用于一篇文档。
+class SelectiveFieldVisitor extends DocumentStoredFieldVisitor {
+
+    private final Set<String> remaining;
+
+    SelectiveFieldVisitor(Set<String> fields) {
+        super(fields);
+        this.remaining = new HashSet<>(fields);
+    }
+
+    @Override
+    public Status needsField(FieldInfo fieldInfo) {
+        if (remaining.isEmpty()) {
+            return Status.STOP;
+        }
+        return remaining.remove(fieldInfo.name) ? Status.YES : Status.NO;
+    }
+}
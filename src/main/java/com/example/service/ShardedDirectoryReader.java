@@ -0,0 +1,173 @@
+package com.example.service;
+
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexCommit;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.store.Directory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// 多 shard 索引的读取器：把各 shard 目录的 DirectoryReader 组合为一个读取器，叶子按 shard 顺序排列。
+// 同一个 IndexSearcher 检索所有 shard，词频、文档频率等统计量按全部 shard 计算，各 shard 的得分可以直接比较，
+// 前 N 条结果由收集器在所有 shard 的段上统一合并。
+// 继承 DirectoryReader 以便继续使用 SearcherManager 刷新和 SearcherLifetimeManager 保留翻页时间点：
+// 刷新时只重新打开有新提交的 shard，未变化的 shard 读取器在新旧版本之间共享；版本号为各 shard 版本之和，随任一 shard 的提交递增。
+final class ShardedDirectoryReader extends DirectoryReader {
+
+    private final DirectoryReader[] shards;
+
+    // 接管 shards 中每个读取器的一个引用，关闭时释放
+    private ShardedDirectoryReader(DirectoryReader[] shards) throws IOException {
+        super(shards[0].directory(), leaves(shards), null);
+        this.shards = shards;
+    }
+
+    static ShardedDirectoryReader open(Directory[] dirs) throws IOException {
+        DirectoryReader[] shards = new DirectoryReader[dirs.length];
+        try {
+            for (int i = 0; i < dirs.length; i++) {
+                shards[i] = DirectoryReader.open(dirs[i]);
+            }
+            return new ShardedDirectoryReader(shards);
+        } catch (IOException | RuntimeException e) {
+            release(shards);
+            throw e;
+        }
+    }
+
+    private static LeafReader[] leaves(DirectoryReader[] shards) {
+        List<LeafReader> leaves = new ArrayList<>();
+        for (DirectoryReader shard : shards) {
+            for (LeafReaderContext leaf : shard.leaves()) {
+                leaves.add(leaf.reader());
+            }
+        }
+        return leaves.toArray(new LeafReader[0]);
+    }
+
+    int shardCount() {
+        return shards.length;
+    }
+
+    DirectoryReader shard(int i) {
+        return shards[i];
+    }
+
+    // 按 shard 分组的叶子上下文（docBase 相对于本读取器）
+    List<List<LeafReaderContext>> leavesByShard() {
+        List<List<LeafReaderContext>> groups = new ArrayList<>();
+        List<LeafReaderContext> leaves = leaves();
+        int offset = 0;
+        for (DirectoryReader shard : shards) {
+            int count = shard.leaves().size();
+            groups.add(leaves.subList(offset, offset + count));
+            offset += count;
+        }
+        return groups;
+    }
+
+    @Override
+    protected DirectoryReader doOpenIfChanged() throws IOException {
+        DirectoryReader[] reopened = new DirectoryReader[shards.length];
+        boolean changed = false;
+        try {
+            for (int i = 0; i < shards.length; i++) {
+                DirectoryReader newer = DirectoryReader.openIfChanged(shards[i]);
+                if (newer != null) {
+                    reopened[i] = newer;
+                    changed = true;
+                } else {
+                    shards[i].incRef();
+                    reopened[i] = shards[i];
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            release(reopened);
+            throw e;
+        }
+        if (!changed) {
+            release(reopened);
+            return null;
+        }
+        try {
+            return new ShardedDirectoryReader(reopened);
+        } catch (IOException | RuntimeException e) {
+            release(reopened);
+            throw e;
+        }
+    }
+
+    @Override
+    protected DirectoryReader doOpenIfChanged(IndexCommit commit) {
+        throw new UnsupportedOperationException("Sharded index has no single commit");
+    }
+
+    @Override
+    protected DirectoryReader doOpenIfChanged(IndexWriter writer, boolean applyAllDeletes) {
+        throw new UnsupportedOperationException("Sharded index has no single writer");
+    }
+
+    @Override
+    public long getVersion() {
+        long version = 0;
+        for (DirectoryReader shard : shards) {
+            version += shard.getVersion();
+        }
+        return version;
+    }
+
+    @Override
+    public boolean isCurrent() throws IOException {
+        for (DirectoryReader shard : shards) {
+            if (!shard.isCurrent()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public IndexCommit getIndexCommit() {
+        throw new UnsupportedOperationException("Sharded index has no single commit");
+    }
+
+    @Override
+    protected void doClose() throws IOException {
+        release(shards);
+    }
+
+    // 各 shard 的读取器生命周期不同，组合读取器不参与顶层缓存
+    @Override
+    public CacheHelper getReaderCacheHelper() {
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "ShardedDirectoryReader(" + shards.length + " shards, version " + getVersion() + ")";
+    }
+
+    // 释放每个非空读取器的引用，出错时继续释放其余读取器，最后抛出第一个异常
+    private static void release(DirectoryReader[] readers) throws IOException {
+        IOException first = null;
+        for (DirectoryReader reader : readers) {
+            if (reader == null) {
+                continue;
+            }
+            try {
+                reader.decRef();
+            } catch (IOException e) {
+                if (first == null) {
+                    first = e;
+                }
+            }
+        }
+        if (first != null) {
+            throw first;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.service;
+
+import com.example.model.SlowQuery;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 慢查询日志：检索线程只把记录放入有界队列（满时丢弃并计数），由后台线程写入文件。
+// 内存中保留最近 maxRecent 条供管理接口查看；文件超过 maxFileBytes 后滚动为 <文件名>.1，只保留一个旧文件。
+public class SlowQueryLog implements Closeable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+    private final Path path;
+    private final long maxFileBytes;
+    private final int maxRecent;
+    private final BlockingQueue<SlowQuery> queue = new ArrayBlockingQueue<>(1000);
+    private final Deque<SlowQuery> recent = new ArrayDeque<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean closed;
+
+    // path 为空时只保留在内存中
+    public SlowQueryLog(String path, long maxFileBytes, int maxRecent) {
+        this.path = path == null || path.isEmpty() ? null : Paths.get(path);
+        this.maxFileBytes = maxFileBytes;
+        this.maxRecent = maxRecent;
+        writer = new Thread(this::writeLoop, "slow-query-log");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public void offer(SlowQuery entry) {
+        if (!queue.offer(entry)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    // 最近的慢查询，最新的在前
+    public List<SlowQuery> recent() {
+        synchronized (recent) {
+            return new ArrayList<>(recent);
+        }
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    private void writeLoop() {
+        BufferedWriter out = null;
+        try {
+            while (!closed || !queue.isEmpty()) {
+                SlowQuery entry = queue.poll(1, TimeUnit.SECONDS);
+                if (entry == null) {
+                    continue;
+                }
+                synchronized (recent) {
+                    recent.addFirst(entry);
+                    if (recent.size() > maxRecent) {
+                        recent.removeLast();
+                    }
+                }
+                if (path == null) {
+                    continue;
+                }
+                try {
+                    if (out == null) {
+                        out = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                    }
+                    out.write(MAPPER.writeValueAsString(entry));
+                    out.newLine();
+                    out.flush();
+                    if (maxFileBytes > 0 && Files.size(path) > maxFileBytes) {
+                        out.close();
+                        out = null;
+                        Files.move(path, Paths.get(path + ".1"), StandardCopyOption.REPLACE_EXISTING);
+                    }
+                } catch (IOException e) {
+                    System.err.println("Error writing slow query log " + path + ": " + e.getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    System.err.println("Error closing slow query log " + path + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            writer.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
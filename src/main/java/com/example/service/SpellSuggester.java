@@ -0,0 +1,75 @@
+package com.example.service;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.spell.DirectSpellChecker;
+import org.apache.lucene.search.spell.LuceneDictionary;
+import org.apache.lucene.search.spell.SpellChecker;
+import org.apache.lucene.search.spell.SuggestMode;
+import org.apache.lucene.search.spell.SuggestWord;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+// 零命中时的拼写建议。
+// DIRECT：DirectSpellChecker 直接在主索引的词典上做编辑距离匹配，无需侧索引，启动即可用，且随读取器刷新自动包含新词；
+// INDEX：原实现，每个字段一个 SpellChecker 侧索引（<索引目录>_<字段>_spell），缺失时在启动时构建。
+public class SpellSuggester implements Closeable {
+
+    public enum Mode {
+        DIRECT,
+        INDEX
+    }
+
+    // 日期不是自然语言文本，不提供拼写建议
+    public static final String[] FIELDS = {"title", "authors", "affiliation", "address", "fulltext"};
+
+    private final Mode mode;
+    private final DirectSpellChecker directSpellChecker = new DirectSpellChecker();
+    private final Map<String, SpellChecker> spellCheckers = new HashMap<>();
+
+    public SpellSuggester(Mode mode, String indexDir, IndexReader reader) throws IOException {
+        this.mode = mode;
+        if (mode == Mode.INDEX) {
+            // 构建每个字段独立的拼写检查器
+            for (String field : FIELDS) {
+                Directory spellIndexDir = FSDirectory.open(Paths.get(indexDir + "_" + field + "_spell"));
+                SpellChecker spellChecker = new SpellChecker(spellIndexDir);
+                if (!DirectoryReader.indexExists(spellIndexDir)) {
+                    spellChecker.indexDictionary(new LuceneDictionary(reader, field), new IndexWriterConfig(new StandardAnalyzer()), true);
+                }
+                spellCheckers.put(field, spellChecker);
+            }
+        }
+    }
+
+    // 返回至多 count 个拼写建议，reader 为当前查询使用的读取器
+    public String[] suggest(IndexReader reader, String field, String word, int count) throws IOException {
+        if (mode == Mode.INDEX) {
+            SpellChecker spellChecker = spellCheckers.get(field);
+            return spellChecker == null ? new String[0] : spellChecker.suggestSimilar(word, count);
+        }
+        SuggestWord[] suggestions = directSpellChecker.suggestSimilar(new Term(field, word), count, reader,
+                SuggestMode.SUGGEST_WHEN_NOT_IN_INDEX);
+        String[] words = new String[suggestions.length];
+        for (int i = 0; i < suggestions.length; i++) {
+            words[i] = suggestions[i].string;
+        }
+        return words;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (SpellChecker spellChecker : spellCheckers.values()) {
+            spellChecker.close();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.service;
+
+import com.example.IndexPointer;
+import com.example.SuggestIndexBuilder;
+import com.example.config.SearchProperties;
+import com.example.model.SuggestResult;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.search.suggest.Lookup;
+import org.apache.lucene.search.suggest.analyzing.AnalyzingInfixSuggester;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// 输入提示服务：加载 LuceneIndexer 构建的标题和作者提示索引，按前缀返回按热度排序的补全。
+// 提示索引被重建后（新的提交），或索引指针切换到另一个索引目录后，后台线程会自动重新加载。
+@Service
+public class SuggestService {
+
+    // 单次请求返回的最大条数
+    public static final int MAX_COUNT = 20;
+
+    private final String indexDir;
+    private final Map<String, Loaded> suggesters = new HashMap<>();
+    // 查询持读锁，替换提示索引时持写锁，避免查询使用已关闭的旧索引
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private ScheduledExecutorService reloader;
+
+    public SuggestService(SearchProperties properties) {
+        this.indexDir = properties.getIndexDir();
+        reload();
+        for (String field : SuggestIndexBuilder.FIELDS) {
+            if (!suggesters.containsKey(field)) {
+                System.out.println("No " + field + " suggester found, run LuceneIndexer to build it");
+            }
+        }
+
+        long interval = properties.getSuggestReloadIntervalMs();
+        if (interval > 0) {
+            reloader = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "suggest-reload");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reloader.scheduleWithFixedDelay(this::reload, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // 检查各字段的提示索引是否有新的提交，有则打开新版本并替换旧版本。
+    // 后台线程、重建提示索引和切换索引都会调用，整个比较-打开-替换过程串行执行，避免同时打开同一版本后泄漏其中一个
+    public synchronized void reload() {
+        String activeDir;
+        try {
+            activeDir = IndexPointer.resolve(indexDir);
+        } catch (IOException e) {
+            System.err.println("Error reading index pointer: " + e.getMessage());
+            return;
+        }
+        for (String field : SuggestIndexBuilder.FIELDS) {
+            try {
+                reload(field, activeDir);
+            } catch (IOException e) {
+                System.err.println("Error loading " + field + " suggester: " + e.getMessage());
+            }
+        }
+    }
+
+    private void reload(String field, String activeDir) throws IOException {
+        Loaded current;
+        lock.readLock().lock();
+        try {
+            current = suggesters.get(field);
+        } finally {
+            lock.readLock().unlock();
+        }
+        // 每个提示器独占一个 Directory，关闭提示器时会一并关闭
+        String path = SuggestIndexBuilder.suggestDir(activeDir, field);
+        Directory dir = FSDirectory.open(Paths.get(path));
+        if (!DirectoryReader.indexExists(dir) || current != null && current.path.equals(path)
+                && current.generation == SegmentInfos.getLastCommitGeneration(dir)) {
+            dir.close();
+            return;
+        }
+
+        Loaded loaded = new Loaded(SuggestIndexBuilder.open(dir), path, SegmentInfos.getLastCommitGeneration(dir));
+        lock.writeLock().lock();
+        try {
+            suggesters.put(field, loaded);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (current != null) {
+            current.suggester.close();
+        }
+        System.out.println("Loaded " + field + " suggester with " + loaded.suggester.getCount() + " entries");
+    }
+
+    // 按前缀返回至多 count 条补全，字段不存在或提示索引尚未构建时返回空列表
+    public List<SuggestResult> suggest(String field, String prefix, int count) throws IOException {
+        if (prefix == null || prefix.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Lookup.LookupResult> lookupResults;
+        lock.readLock().lock();
+        try {
+            Loaded loaded = suggesters.get(field);
+            if (loaded == null) {
+                return Collections.emptyList();
+            }
+            lookupResults = loaded.suggester.lookup(prefix, Math.max(1, Math.min(count, MAX_COUNT)), true, true);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<SuggestResult> results = new ArrayList<>();
+        for (Lookup.LookupResult lookupResult : lookupResults) {
+            SuggestResult result = new SuggestResult();
+            result.setText(lookupResult.key.toString());
+            result.setHighlightedText(lookupResult.highlightKey == null ? null : lookupResult.highlightKey.toString());
+            result.setWeight(lookupResult.value);
+            if (lookupResult.payload != null) {
+                result.setId(lookupResult.payload.utf8ToString());
+            }
+            results.add(result);
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (reloader != null) {
+            reloader.shutdownNow();
+        }
+        lock.writeLock().lock();
+        try {
+            for (Loaded loaded : suggesters.values()) {
+                loaded.suggester.close();
+            }
+            suggesters.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static final class Loaded {
+        final AnalyzingInfixSuggester suggester;
+        final String path;
+        final long generation;
+
+        Loaded(AnalyzingInfixSuggester suggester, String path, long generation) {
+            this.suggester = suggester;
+            this.path = path;
+            this.generation = generation;
+        }
+    }
+}